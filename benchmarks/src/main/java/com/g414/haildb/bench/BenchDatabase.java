@@ -0,0 +1,144 @@
+package com.g414.haildb.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.g414.haildb.ColumnAttribute;
+import com.g414.haildb.ColumnType;
+import com.g414.haildb.Database;
+import com.g414.haildb.DatabaseConfiguration;
+import com.g414.haildb.DatabaseConfiguration.LogFlushMode;
+import com.g414.haildb.TableBuilder;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.DatabaseTemplate;
+import com.g414.haildb.tpl.DatabaseTemplate.TransactionCallback;
+
+/*
+ * A HailDB instance in a fresh temp directory with one table of ROWS
+ * rows, shaped by the key type and row width parameters. HailDB starts
+ * once per JVM, and JMH forks a JVM per parameter combination, so each
+ * trial gets its own instance.
+ */
+@State(Scope.Benchmark)
+public class BenchDatabase {
+    public static final String SCHEMA_NAME = "bench";
+    public static final int ROWS = 10000;
+
+    @Param( { "INT", "VARCHAR" })
+    public String keyType;
+
+    /* bytes of payload per row */
+    @Param( { "16", "256", "4096" })
+    public int rowWidth;
+
+    @Param( { "AT_TRX_COMMIT_SYNC", "AT_TRX_COMMIT_NOSYNC", "ONCE_PER_SECOND" })
+    public String logFlushMode;
+
+    public Database db;
+    public DatabaseTemplate dt;
+    public TableDef table;
+
+    private File dataDir;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataDir = Files.createTempDirectory("haildb-bench").toFile();
+        db = start(dataDir, LogFlushMode.valueOf(logFlushMode));
+        db.createDatabase(SCHEMA_NAME);
+        dt = new DatabaseTemplate(db);
+
+        table = createTableDef(ColumnType.valueOf(keyType), rowWidth);
+        db.createTable(table);
+
+        payload = new byte[rowWidth];
+        new Random(0).nextBytes(payload);
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        for (int i = 0; i < ROWS; i++) {
+                            dt.insert(txn, table, row(i));
+                        }
+
+                        return null;
+                    }
+                });
+    }
+
+    /* the engine must be down before its files go */
+    @TearDown
+    public void tearDown() {
+        db.dropTable(table);
+        db.shutdown();
+        deleteRecursively(dataDir);
+    }
+
+    public Map<String, Object> key(int i) {
+        Map<String, Object> key = new HashMap<String, Object>();
+        key.put("k", keyType.equals("INT") ? (Object) Long.valueOf(i)
+                : String.format("key%010d", i));
+
+        return key;
+    }
+
+    public Map<String, Object> row(int i) {
+        Map<String, Object> row = key(i);
+        row.put("n", i % 100);
+        row.put("v", payload);
+
+        return row;
+    }
+
+    /* starts HailDB with its data and logs under dir */
+    static Database start(File dir, LogFlushMode mode) {
+        String home = dir.getAbsolutePath() + File.separator;
+
+        DatabaseConfiguration config = new DatabaseConfiguration();
+        config.setDataHomeDir(home);
+        config.setLogFileHomeDirectory(home);
+        config.setPrintVerboseLog(false);
+        config.setFlushLogAtTrxCommitMode(mode);
+
+        return new Database(config);
+    }
+
+    static TableDef createTableDef(ColumnType keyType, int rowWidth) {
+        TableBuilder b = new TableBuilder(SCHEMA_NAME + "/t");
+        if (keyType.equals(ColumnType.INT)) {
+            b.addColumn("k", ColumnType.INT, 8, ColumnAttribute.NOT_NULL);
+        } else {
+            b.addColumn("k", ColumnType.VARCHAR, 32, ColumnAttribute.NOT_NULL);
+        }
+
+        b.addColumn("n", ColumnType.INT, 4, ColumnAttribute.NOT_NULL);
+        b.addColumn("v", ColumnType.VARBINARY, rowWidth);
+
+        b.addIndex("PRIMARY", "k", 0, true, true);
+        b.addIndex("n", "n", 0, false, false);
+
+        return b.build();
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+
+        file.delete();
+    }
+}
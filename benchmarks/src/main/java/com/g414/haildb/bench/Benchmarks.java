@@ -0,0 +1,28 @@
+package com.g414.haildb.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* the usual JMH command line, with the GC (allocation rate) profiler on */
+public class Benchmarks {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+
+            return;
+        }
+
+        Runner runner = new Runner(new OptionsBuilder().parent(cmd)
+                .addProfiler(GCProfiler.class).build());
+
+        if (cmd.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.g414.haildb.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.RowView;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.DatabaseTemplate.TransactionCallback;
+import com.g414.haildb.tpl.Functional;
+import com.g414.haildb.tpl.Functional.RowMapping;
+import com.g414.haildb.tpl.Functional.RowReduction;
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.Functional.Traversal;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+import com.g414.haildb.tpl.TraversalSpecBuilder;
+
+/* full scans of the preloaded table; scores are per scan of ROWS rows */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScanBenchmark {
+    @Param( { "ASC", "DESC" })
+    public String direction;
+
+    /* PRIMARY, or the secondary index on n */
+    @Param( { "PRIMARY", "n" })
+    public String index;
+
+    private TraversalSpec spec;
+
+    @Setup
+    public void setUp(BenchDatabase bench) {
+        Target target = index.equals("PRIMARY") ? new Target(bench.table)
+                : new Target(bench.table, index);
+
+        spec = new TraversalSpecBuilder(target).withDirection(
+                CursorDirection.valueOf(direction)).build();
+    }
+
+    @Benchmark
+    public void map(BenchDatabase bench, final Blackhole bh) throws Exception {
+        bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Traversal<Long> iter = Functional.map(txn, spec,
+                                new RowMapping<Long>() {
+                                    public Long map(RowView row) {
+                                        return row.getLong("n");
+                                    }
+                                });
+
+                        try {
+                            while (iter.hasNext()) {
+                                bh.consume(iter.next());
+                            }
+                        } finally {
+                            iter.close();
+                        }
+
+                        return null;
+                    }
+                });
+    }
+
+    @Benchmark
+    public long reduce(BenchDatabase bench) throws Exception {
+        return bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Long>() {
+                    public Long inTransaction(Transaction txn) {
+                        return Functional.reduce(txn, spec,
+                                new RowReduction<Long>() {
+                                    public Long reduce(RowView row, Long sum) {
+                                        return sum + row.getLong("n");
+                                    }
+                                }, 0L);
+                    }
+                });
+    }
+}
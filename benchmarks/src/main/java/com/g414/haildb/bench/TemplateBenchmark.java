@@ -0,0 +1,130 @@
+package com.g414.haildb.bench;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.DatabaseTemplate.TransactionCallback;
+
+/* one DatabaseTemplate operation per transaction, as an application would */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateBenchmark {
+    @State(Scope.Thread)
+    public static class Keys {
+        /* fresh keys for inserts, above the preloaded range */
+        private int nextInsert = BenchDatabase.ROWS;
+
+        public int existing() {
+            return ThreadLocalRandom.current().nextInt(BenchDatabase.ROWS);
+        }
+
+        public int fresh() {
+            return nextInsert++;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Victim {
+        private int next = -1;
+        private int key;
+
+        /* a row to delete, inserted outside the measured call */
+        @Setup(Level.Invocation)
+        public void insert(final BenchDatabase bench) throws Exception {
+            key = next--;
+
+            bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                    new TransactionCallback<Void>() {
+                        public Void inTransaction(Transaction txn) {
+                            bench.dt.insert(txn, bench.table, bench.row(key));
+
+                            return null;
+                        }
+                    });
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> load(final BenchDatabase bench, Keys keys)
+            throws Exception {
+        final Map<String, Object> key = bench.key(keys.existing());
+
+        return bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Map<String, Object>>() {
+                    public Map<String, Object> inTransaction(Transaction txn) {
+                        return bench.dt.load(txn, bench.table, key);
+                    }
+                });
+    }
+
+    @Benchmark
+    public void insert(final BenchDatabase bench, Keys keys) throws Exception {
+        final Map<String, Object> row = bench.row(keys.fresh());
+
+        bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        bench.dt.insert(txn, bench.table, row);
+
+                        return null;
+                    }
+                });
+    }
+
+    @Benchmark
+    public boolean update(final BenchDatabase bench, Keys keys)
+            throws Exception {
+        final Map<String, Object> row = bench.row(keys.existing());
+
+        return bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Boolean>() {
+                    public Boolean inTransaction(Transaction txn) {
+                        return bench.dt.update(txn, bench.table, row);
+                    }
+                });
+    }
+
+    @Benchmark
+    public boolean insertOrUpdate(final BenchDatabase bench, Keys keys)
+            throws Exception {
+        final Map<String, Object> row = bench.row(keys.existing());
+
+        return bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Boolean>() {
+                    public Boolean inTransaction(Transaction txn) {
+                        return bench.dt.insertOrUpdate(txn, bench.table, row);
+                    }
+                });
+    }
+
+    @Benchmark
+    public boolean delete(final BenchDatabase bench, Victim victim)
+            throws Exception {
+        final Map<String, Object> key = bench.key(victim.key);
+
+        return bench.dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Boolean>() {
+                    public Boolean inTransaction(Transaction txn) {
+                        return bench.dt.delete(txn, bench.table, key);
+                    }
+                });
+    }
+}
@@ -0,0 +1,173 @@
+package com.g414.haildb.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.g414.haildb.ColumnType;
+import com.g414.haildb.Cursor;
+import com.g414.haildb.Database;
+import com.g414.haildb.DatabaseConfiguration.LogFlushMode;
+import com.g414.haildb.RowCodec;
+import com.g414.haildb.TableBuilder;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.Tuple;
+
+/*
+ * Encoding a value into a tuple column and decoding it back, per column
+ * type. Only the tuple is touched, so the log flush mode and key type
+ * do not apply. Fixed-width types run once each; for the string and
+ * binary types rowWidth is the column length. DECIMAL is left out:
+ * RowCodec has no codec for it and rejects every value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleStorageBenchmark {
+    @State(Scope.Benchmark)
+    public static class FixedWidth extends ColumnState {
+        @Param( { "INT", "DOUBLE", "FLOAT" })
+        public String columnType;
+
+        @Setup
+        public void setUp() throws Exception {
+            ColumnType type = ColumnType.valueOf(columnType);
+            open(type, type.equals(ColumnType.FLOAT) ? 4 : 8, 0);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class VariableWidth extends ColumnState {
+        @Param( { "CHAR", "CHAR_ANYCHARSET", "VARCHAR", "VARCHAR_ANYCHARSET",
+                "BINARY", "VARBINARY", "BLOB" })
+        public String columnType;
+
+        @Param( { "16", "256", "4096" })
+        public int rowWidth;
+
+        @Setup
+        public void setUp() throws Exception {
+            ColumnType type = ColumnType.valueOf(columnType);
+            open(type, type.equals(ColumnType.BLOB) ? 0 : rowWidth, rowWidth);
+        }
+    }
+
+    /* one value column in a fresh HailDB instance per trial */
+    public static abstract class ColumnState {
+        private File dataDir;
+        private Database db;
+        private Transaction txn;
+        private Cursor cursor;
+        private Tuple tuple;
+        private RowCodec codec;
+        private int column;
+        private Object value;
+
+        protected void open(ColumnType type, int length, int width)
+                throws Exception {
+            dataDir = Files.createTempDirectory("haildb-bench").toFile();
+            db = BenchDatabase.start(dataDir,
+                    LogFlushMode.AT_TRX_COMMIT_NOSYNC);
+            db.createDatabase(BenchDatabase.SCHEMA_NAME);
+
+            TableBuilder b = new TableBuilder(BenchDatabase.SCHEMA_NAME
+                    + "/types");
+            b.addColumn("id", ColumnType.INT, 8);
+            b.addColumn("v", type, length);
+            b.addIndex("PRIMARY", "id", 0, true, true);
+
+            TableDef def = b.build();
+            db.createTable(def);
+
+            txn = db.beginTransaction(TransactionLevel.REPEATABLE_READ);
+            cursor = txn.openTable(def);
+            tuple = cursor.createClusteredIndexReadTuple();
+            codec = tuple.getRowCodec();
+            column = codec.getPosition("v");
+            value = valueOf(type, width);
+
+            codec.encode(tuple, column, value, false);
+        }
+
+        /* the engine must be down before its files go */
+        @TearDown
+        public void tearDown() {
+            tuple.delete();
+            cursor.close();
+            txn.rollback();
+            db.shutdown();
+            BenchDatabase.deleteRecursively(dataDir);
+        }
+
+        /* clears first so variable-length values do not pile up */
+        void encode() {
+            tuple.clear();
+            codec.encode(tuple, column, value, false);
+        }
+
+        Object decode() {
+            return codec.decode(tuple, column);
+        }
+    }
+
+    @Benchmark
+    public void encodeFixed(FixedWidth state) {
+        state.encode();
+    }
+
+    @Benchmark
+    public Object decodeFixed(FixedWidth state) {
+        return state.decode();
+    }
+
+    @Benchmark
+    public void encodeVariable(VariableWidth state) {
+        state.encode();
+    }
+
+    @Benchmark
+    public Object decodeVariable(VariableWidth state) {
+        return state.decode();
+    }
+
+    /* strings leave room for the NUL terminator TupleStorage appends */
+    static Object valueOf(ColumnType type, int width) {
+        switch (type) {
+        case INT:
+            return Long.valueOf(0x0123456789ABCDEFL);
+        case DOUBLE:
+            return Double.valueOf(Math.PI);
+        case FLOAT:
+            return Float.valueOf((float) Math.E);
+        case CHAR:
+        case CHAR_ANYCHARSET:
+        case VARCHAR:
+        case VARCHAR_ANYCHARSET:
+            char[] chars = new char[width - 1];
+            Arrays.fill(chars, 'x');
+            return new String(chars);
+        default:
+            byte[] bytes = new byte[width];
+            Arrays.fill(bytes, (byte) 0x5A);
+            return bytes;
+        }
+    }
+}
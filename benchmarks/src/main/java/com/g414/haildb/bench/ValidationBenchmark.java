@@ -0,0 +1,58 @@
+package com.g414.haildb.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.g414.haildb.ColumnDef;
+import com.g414.haildb.ColumnType;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Validation;
+
+/* Validation.isValid is pure Java, so this needs no HailDB instance */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    @Param( { "INT", "VARCHAR" })
+    public String keyType;
+
+    @Param( { "16", "256", "4096" })
+    public int rowWidth;
+
+    private ColumnDef key;
+    private ColumnDef payload;
+    private Object keyValue;
+    private Object payloadValue;
+
+    @Setup
+    public void setUp() {
+        TableDef def = BenchDatabase.createTableDef(ColumnType
+                .valueOf(keyType), rowWidth);
+
+        key = def.getColumnDefs().get("k");
+        payload = def.getColumnDefs().get("v");
+        keyValue = keyType.equals("INT") ? (Object) Long.valueOf(42)
+                : "key0000000042";
+        payloadValue = new byte[rowWidth];
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return Validation.isValid(key, keyValue)
+                && Validation.isValid(payload, payloadValue);
+    }
+}
@@ -0,0 +1,90 @@
+package com.g414.haildb;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+public class ByteBufferInputStream extends InputStream implements
+        ReadableByteChannel {
+    private final ByteBuffer buf;
+    private boolean open = true;
+
+    public ByteBufferInputStream(ByteBuffer buf) {
+        this.buf = buf.duplicate();
+    }
+
+    @Override
+    public int read() throws IOException {
+        assertOpen();
+
+        return buf.hasRemaining() ? (buf.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        assertOpen();
+
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!buf.hasRemaining()) {
+            return -1;
+        }
+
+        int n = Math.min(len, buf.remaining());
+        buf.get(b, off, n);
+
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        assertOpen();
+
+        if (!buf.hasRemaining()) {
+            return -1;
+        }
+
+        int n = Math.min(dst.remaining(), buf.remaining());
+        ByteBuffer src = buf.duplicate();
+        src.limit(src.position() + n);
+        dst.put(src);
+        buf.position(buf.position() + n);
+
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        assertOpen();
+
+        int skipped = (int) Math.max(0, Math.min(n, buf.remaining()));
+        buf.position(buf.position() + skipped);
+
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return open ? buf.remaining() : 0;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void assertOpen() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
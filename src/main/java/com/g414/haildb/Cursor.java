@@ -5,7 +5,6 @@ import java.nio.IntBuffer;
 import java.util.Map;
 
 import com.g414.haildb.impl.jna.HailDB;
-import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
 
 public class Cursor {
@@ -107,19 +106,41 @@ public class Cursor {
     private final PointerByReference crsr;
     private final TableDef table;
     private final IndexDef index;
+    private final TupleArena arena = new TupleArena();
+    private Transaction txn;
 
     private volatile int err = HailDB.db_err.DB_SUCCESS;
+    private LockMode lockMode;
 
     public Cursor(PointerByReference crsr, TableDef table, IndexDef index) {
+        this(crsr, table, index, null);
+    }
+
+    public Cursor(PointerByReference crsr, TableDef table, IndexDef index,
+            Transaction txn) {
         this.crsr = crsr;
         this.table = table;
         this.index = index;
+        this.txn = txn;
     }
 
     public PointerByReference getCrsr() {
         return crsr;
     }
 
+    public TableDef getTableDef() {
+        return table;
+    }
+
+    public IndexDef getIndexDef() {
+        return index;
+    }
+
+    /* the last mode given to setLockMode, or null if never set */
+    public LockMode getLockMode() {
+        return lockMode;
+    }
+
     public Tuple createClusteredIndexReadTuple() {
         // if (this.index != null) {
         // throw new IllegalArgumentException(
@@ -127,7 +148,7 @@ public class Cursor {
         // }
 
         return new Tuple(HailDB.ib_clust_read_tuple_create(crsr.getValue()),
-                table.getColDefs());
+                table.getRowCodec(), arena);
     }
 
     public Tuple createClusteredIndexSearchTuple(Map<String, Object> val) {
@@ -137,13 +158,9 @@ public class Cursor {
         }
 
         Tuple searchTuple = new Tuple(HailDB.ib_clust_search_tuple_create(crsr
-                .getValue()), table.getColDefs());
+                .getValue()), table.getPrimaryIndex().getRowCodec(), arena);
 
-        for (int i = 0; i < table.getPrimaryIndex().getColumns().size(); i++) {
-            ColumnDef colDef = table.getPrimaryIndex().getColumns().get(i);
-            Object value = val.get(colDef.getName());
-            setValue(searchTuple, colDef, i, value, true, true);
-        }
+        searchTuple.codec.encode(searchTuple, val, true);
 
         return searchTuple;
     }
@@ -155,7 +172,7 @@ public class Cursor {
         }
 
         return new Tuple(HailDB.ib_sec_read_tuple_create(crsr.getValue()),
-                index.getColumns());
+                index.getRowCodec(), arena);
     }
 
     public Tuple createSecondaryIndexSearchTuple(Map<String, Object> val) {
@@ -165,14 +182,9 @@ public class Cursor {
         }
 
         Tuple searchTuple = new Tuple(HailDB.ib_sec_search_tuple_create(crsr
-                .getValue()), index.getColumns());
+                .getValue()), index.getRowCodec(), arena);
 
-        for (int i = 0; i < index.getColumns().size(); i++) {
-            ColumnDef colDef = index.getColumns().get(i);
-            Object value = val.get(colDef.getName());
-
-            setValue(searchTuple, colDef, i, value, true, true);
-        }
+        searchTuple.codec.encode(searchTuple, val, true);
 
         return searchTuple;
     }
@@ -187,12 +199,21 @@ public class Cursor {
             throw new IllegalArgumentException("unknown index: " + indexName);
         }
 
+        IndexDef indexDef = table.getIndexDefs().get(indexName);
+
+        if (txn != null) {
+            Cursor byId = txn.openIndexById(table, indexDef);
+            if (byId != null) {
+                return byId;
+            }
+        }
+
         PointerByReference indexCrsr = new PointerByReference();
 
         Util.assertSuccess(HailDB.ib_cursor_open_index_using_name(
                 crsr.getValue(), indexName, indexCrsr));
 
-        return new Cursor(indexCrsr, table, table.getIndexDefs().get(indexName));
+        return new Cursor(indexCrsr, table, indexDef, txn);
     }
 
     public void setClusterAccess() {
@@ -263,6 +284,7 @@ public class Cursor {
     public void setLockMode(LockMode mode) {
         Util.assertSuccess(HailDB.ib_cursor_set_lock_mode(crsr.getValue(),
                 mode.getCode()));
+        lockMode = mode;
     }
 
     public void insertRow(Tuple tupl, Map<String, Object> data) {
@@ -271,12 +293,7 @@ public class Cursor {
         }
 
         try {
-            for (int i = 0; i < table.getColDefs().size(); i++) {
-                ColumnDef colDef = table.getColDefs().get(i);
-                Object value = data.get(colDef.getName());
-
-                setValue(tupl, colDef, i, value, false, true);
-            }
+            tupl.codec.encode(tupl, data, false);
 
             Util.assertSuccess(HailDB.ib_cursor_insert_row(crsr.getValue(),
                     tupl.tupl));
@@ -296,12 +313,7 @@ public class Cursor {
             Util.assertSuccess(HailDB.ib_tuple_copy(newTuple.tupl,
                     oldTuple.tupl));
 
-            for (int i = 0; i < table.getColDefs().size(); i++) {
-                ColumnDef colDef = table.getColDefs().get(i);
-                Object value = data.get(colDef.getName());
-
-                setValue(newTuple, colDef, i, value, false, true);
-            }
+            newTuple.codec.encode(newTuple, data, false);
 
             Util.assertSuccess(HailDB.ib_cursor_update_row(crsr.getValue(),
                     oldTuple.tupl, newTuple.tupl));
@@ -311,65 +323,67 @@ public class Cursor {
         }
     }
 
-    private static void setValue(Tuple tupl, ColumnDef colDef, int i,
-            Object val, boolean ignoreNull, boolean coerce) {
-        if (val == null) {
-            if (!ignoreNull
-                    && colDef.getAttrs().contains(ColumnAttribute.NOT_NULL)) {
-                throw new IllegalArgumentException(
-                        "Cannot store null in non-null column: "
-                                + colDef.getName());
-            } else {
-                Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
-                        Pointer.NULL, HailDB.IB_SQL_NULL));
-            }
-        } else {
-            if (val instanceof String) {
-                val = TupleStorage.coerceType((String) val, colDef.getType());
-            }
+    public void insertRow(Tuple tupl) {
+        try {
+            Util.assertSuccess(HailDB.ib_cursor_insert_row(crsr.getValue(),
+                    tupl.tupl));
+        } finally {
+            tupl.clear();
+        }
+    }
 
-            switch (colDef.getType()) {
-            case BINARY:
-            case VARBINARY:
-            case BLOB:
-                TupleStorage.storeBytes(tupl, i, (byte[]) val);
-                break;
-            case CHAR:
-            case CHAR_ANYCHARSET:
-            case VARCHAR:
-            case VARCHAR_ANYCHARSET:
-                TupleStorage.storeString(tupl, i, (String) val);
-                break;
-            case INT:
-                Number numVal = (Number) val;
-                TupleStorage.storeInteger(tupl, colDef, i, numVal);
-                break;
-            case DOUBLE:
-                Number dubVal = (Number) val;
-                Util.assertSuccess(HailDB.ib_tuple_write_double(tupl.tupl, i,
-                        dubVal.doubleValue()));
-                break;
-            case FLOAT:
-                Number fltVal = (Number) val;
-                Util.assertSuccess(HailDB.ib_tuple_write_float(tupl.tupl, i,
-                        fltVal.floatValue()));
-                break;
-            default:
-                throw new IllegalArgumentException("unsupported type : "
-                        + colDef.getType());
-            }
+    public Tuple createClusteredIndexUpdateTuple(Tuple oldTuple) {
+        Tuple newTuple = this.createClusteredIndexReadTuple();
+
+        try {
+            Util.assertSuccess(HailDB.ib_tuple_copy(newTuple.tupl,
+                    oldTuple.tupl));
+        } catch (InnoException e) {
+            newTuple.delete();
+
+            throw e;
+        }
+
+        return newTuple;
+    }
+
+    public void updateRow(Tuple oldTuple, Tuple newTuple) {
+        try {
+            Util.assertSuccess(HailDB.ib_cursor_update_row(crsr.getValue(),
+                    oldTuple.tupl, newTuple.tupl));
+        } finally {
+            oldTuple.clear();
+            newTuple.clear();
         }
     }
 
+    /* detaches the cursor from its transaction, see attach() */
     public void reset() {
         Util.assertSuccess(HailDB.ib_cursor_reset(crsr.getValue()));
+        err = HailDB.db_err.DB_SUCCESS;
+        arena.reset();
+    }
+
+    public void attach(Transaction txn) {
+        Util.assertSuccess(HailDB.ib_cursor_attach_trx(crsr.getValue(),
+                txn.trx));
+        this.txn = txn;
     }
 
     public void close() {
-        Util.assertSuccess(HailDB.ib_cursor_close(crsr.getValue()));
+        try {
+            Util.assertSuccess(HailDB.ib_cursor_close(crsr.getValue()));
+        } finally {
+            arena.release();
+        }
     }
 
     private static void assertCursorState(int err) {
+        if (err == HailDB.db_err.DB_DEADLOCK
+                || err == HailDB.db_err.DB_LOCK_WAIT_TIMEOUT) {
+            throw Util.forErrorCode(err);
+        }
+
         if (err != HailDB.db_err.DB_SUCCESS
                 && err != HailDB.db_err.DB_END_OF_INDEX
                 && err != HailDB.db_err.DB_RECORD_NOT_FOUND) {
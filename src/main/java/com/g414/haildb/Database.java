@@ -3,13 +3,23 @@ package com.g414.haildb;
 import java.io.File;
 import java.nio.LongBuffer;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.g414.haildb.DatabaseConfiguration.LogFlushMode;
 import com.g414.haildb.Transaction.TransactionLevel;
 import com.g414.haildb.impl.jna.HailDB;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
 
 public class Database {
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+    private final Thread shutdownHook = new Thread(new Runnable() {
+        @Override
+        public void run() {
+            Database.this.shutdown(false);
+        }
+    });
+
     public Database() {
         this(new DatabaseConfiguration());
     }
@@ -111,12 +121,31 @@ public class Database {
 
         Util.assertSuccess(HailDB.ib_startup(c.getFileFormat().getCode()));
 
-        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
-            @Override
-            public void run() {
-                Database.this.shutdown(false);
-            }
-        }));
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /*
+     * shuts the engine down now rather than at JVM exit, e.g. before its
+     * files are deleted; later calls, and the exit hook, do nothing
+     */
+    public void shutdown() {
+        shutdown(false);
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            /* already exiting: the hook finds the engine shut down */
+        }
+    }
+
+    /* flush_log_at_trx_commit may be changed while running */
+    public void setLogFlushMode(LogFlushMode mode) {
+        Util.assertSuccess(HailDB.ib_cfg_set("flush_log_at_trx_commit", mode
+                .getCode()));
+    }
+
+    public DatabaseStatus getStatus() {
+        return new DatabaseStatus();
     }
 
     public void createDatabase(String databaseName) {
@@ -203,6 +232,9 @@ public class Database {
             Util.assertSuccess(HailDB.ib_table_create(trx.getTrx(),
                     schema.getValue(), tableId));
             trx.commit();
+
+            tableDef.invalidateIds();
+            tableDef.setTableId(tableId.get(0));
         } catch (InnoException e) {
             trx.rollback();
 
@@ -221,12 +253,21 @@ public class Database {
             trx.commit();
         } catch (InnoException e) {
             throw e;
+        } finally {
+            def.invalidateIds();
         }
     }
 
     public Long truncateTable(TableDef tableDef) {
         LongBuffer tableId = LongBuffer.allocate(1);
-        Util.assertSuccess(HailDB.ib_table_truncate(tableDef.getName(), tableId));
+        try {
+            Util.assertSuccess(HailDB.ib_table_truncate(tableDef.getName(),
+                    tableId));
+        } finally {
+            tableDef.invalidateIds();
+        }
+
+        tableDef.setTableId(tableId.get(0));
 
         return tableId.get();
     }
@@ -257,6 +298,10 @@ public class Database {
     }
 
     private void shutdown(boolean fast) {
+        if (!isShutdown.compareAndSet(false, true)) {
+            return;
+        }
+
         int flag = fast ? HailDB.ib_shutdown_t.IB_SHUTDOWN_NO_BUFPOOL_FLUSH
                 : HailDB.ib_shutdown_t.IB_SHUTDOWN_NORMAL;
         Util.assertSuccess(HailDB.ib_shutdown(flag));
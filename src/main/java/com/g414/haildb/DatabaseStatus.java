@@ -0,0 +1,151 @@
+package com.g414.haildb;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.g414.haildb.impl.jna.HailDB;
+
+/*
+ * The engine's status variables (ib_status_get_i64). HailDB has no call
+ * to list them, so VARIABLES names the ones it defines; any a given
+ * build does not know are skipped when reading.
+ */
+public class DatabaseStatus {
+    public static final List<String> VARIABLES = Collections
+            .unmodifiableList(Arrays.asList("read_req_pending",
+                    "write_req_pending", "fsync_req_pending",
+                    "write_req_done", "read_req_done", "fsync_req_done",
+                    "bytes_total_written", "bytes_total_read",
+                    "buffer_pool_current_size", "buffer_pool_data_pages",
+                    "buffer_pool_dirty_pages", "buffer_pool_misc_pages",
+                    "buffer_pool_free_pages", "buffer_pool_read_reqs",
+                    "buffer_pool_reads", "buffer_pool_waited_for_free",
+                    "buffer_pool_pages_flushed", "buffer_pool_write_reqs",
+                    "buffer_pool_total_pages", "buffer_pool_pages_read",
+                    "buffer_pool_pages_written", "double_write_pages_written",
+                    "double_write_invoked", "log_buffer_slot_waits",
+                    "log_write_reqs", "log_write_flush_count",
+                    "log_bytes_written", "log_fsync_req_done",
+                    "log_write_req_pending", "log_fsync_req_pending",
+                    "lock_row_waits", "lock_row_waiting",
+                    "lock_total_wait_time_in_secs",
+                    "lock_wait_time_avg_in_secs",
+                    "lock_max_wait_time_in_secs", "row_total_read",
+                    "row_total_inserted", "row_total_updated",
+                    "row_total_deleted", "page_size",
+                    "have_atomic_builtins"));
+
+    /* point-in-time values; everything else only ever counts up */
+    public static final Set<String> GAUGES = Collections
+            .unmodifiableSet(new HashSet<String>(Arrays.asList(
+                    "read_req_pending", "write_req_pending",
+                    "fsync_req_pending", "buffer_pool_current_size",
+                    "buffer_pool_data_pages", "buffer_pool_dirty_pages",
+                    "buffer_pool_misc_pages", "buffer_pool_free_pages",
+                    "buffer_pool_total_pages", "log_write_req_pending",
+                    "log_fsync_req_pending", "lock_row_waiting",
+                    "lock_wait_time_avg_in_secs",
+                    "lock_max_wait_time_in_secs", "page_size",
+                    "have_atomic_builtins")));
+
+    public DatabaseStatus() {
+    }
+
+    /* the variable's value, or null if this build does not define it */
+    public Long get(String name) {
+        LongBuffer dst = LongBuffer.allocate(1);
+        if (HailDB.ib_status_get_i64(name, dst) != HailDB.db_err.DB_SUCCESS) {
+            return null;
+        }
+
+        return dst.get(0);
+    }
+
+    public Sample sample() {
+        Map<String, Long> values = new LinkedHashMap<String, Long>();
+        for (String name : VARIABLES) {
+            Long value = get(name);
+            if (value != null) {
+                values.put(name, value);
+            }
+        }
+
+        return new Sample(System.nanoTime(), values);
+    }
+
+    public static boolean isCounter(String name) {
+        return !GAUGES.contains(name);
+    }
+
+    public static class Sample {
+        private final long nanoTime;
+        private final Map<String, Long> values;
+
+        public Sample(long nanoTime, Map<String, Long> values) {
+            this.nanoTime = nanoTime;
+            this.values = Collections.unmodifiableMap(values);
+        }
+
+        /* System.nanoTime() when taken, for computing rates */
+        public long getNanoTime() {
+            return nanoTime;
+        }
+
+        public Map<String, Long> getValues() {
+            return values;
+        }
+
+        public Long get(String name) {
+            return values.get(name);
+        }
+
+        /* counter increases since the earlier sample */
+        public Map<String, Long> deltas(Sample earlier) {
+            Map<String, Long> deltas = new LinkedHashMap<String, Long>();
+            for (Map.Entry<String, Long> e : values.entrySet()) {
+                Long before = earlier.values.get(e.getKey());
+                if (before != null && isCounter(e.getKey())) {
+                    deltas.put(e.getKey(), e.getValue() - before);
+                }
+            }
+
+            return Collections.unmodifiableMap(deltas);
+        }
+
+        /* counter increases per second since the earlier sample */
+        public Map<String, Double> rates(Sample earlier) {
+            Map<String, Double> rates = new LinkedHashMap<String, Double>();
+            double seconds = (nanoTime - earlier.nanoTime) / 1e9;
+            if (seconds <= 0) {
+                return Collections.unmodifiableMap(rates);
+            }
+
+            for (Map.Entry<String, Long> e : deltas(earlier).entrySet()) {
+                rates.put(e.getKey(), e.getValue() / seconds);
+            }
+
+            return Collections.unmodifiableMap(rates);
+        }
+
+        /*
+         * share of buffer pool page requests since the earlier sample
+         * served without a disk read, or NaN if there were none
+         */
+        public double bufferPoolHitRate(Sample earlier) {
+            Map<String, Long> deltas = deltas(earlier);
+            Long requests = deltas.get("buffer_pool_read_reqs");
+            Long misses = deltas.get("buffer_pool_reads");
+            if (requests == null || misses == null || requests <= 0) {
+                return Double.NaN;
+            }
+
+            return 1.0 - (double) misses / requests;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.g414.haildb;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.g414.haildb.DatabaseStatus.Sample;
+
+/*
+ * Samples DatabaseStatus on a fixed interval from a daemon thread and
+ * hands each interval (the sample plus its deltas and rates against
+ * the previous one) to the registered sinks; the latest interval is
+ * also readable through the MXBean.
+ */
+public class DatabaseStatusMonitor {
+    public static final String OBJECT_NAME = "com.g414.haildb:type=DatabaseStatus";
+
+    public interface Sink {
+        public void publish(Interval interval);
+    }
+
+    private static final Logger log = Logger
+            .getLogger(DatabaseStatusMonitor.class.getName());
+
+    private final DatabaseStatus status;
+    private final long intervalNanos;
+    private final List<Sink> sinks = new CopyOnWriteArrayList<Sink>();
+    private final ScheduledExecutorService scheduler;
+
+    private Sample previous;
+    private volatile Interval latest;
+
+    public DatabaseStatusMonitor(DatabaseStatus status, long interval,
+            TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+
+        this.status = status;
+        this.intervalNanos = unit.toNanos(interval);
+        this.scheduler = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "haildb-status");
+                        t.setDaemon(true);
+
+                        return t;
+                    }
+                });
+    }
+
+    public void addSink(Sink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(Sink sink) {
+        sinks.remove(sink);
+    }
+
+    public void start() {
+        synchronized (this) {
+            previous = status.sample();
+        }
+
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poll();
+                } catch (RuntimeException e) {
+                    /* a periodic task that throws is never run again */
+                    log.log(Level.WARNING, "status sampling failed", e);
+                }
+            }
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /*
+     * takes a sample now; called by the scheduler each interval, and
+     * serialized so a manual poll cannot overlap or repeat an interval
+     */
+    public synchronized Interval poll() {
+        Sample current = status.sample();
+        Sample earlier = previous;
+        previous = current;
+
+        Interval interval = new Interval(earlier == null ? current : earlier,
+                current);
+        latest = interval;
+
+        for (Sink sink : sinks) {
+            try {
+                sink.publish(interval);
+            } catch (RuntimeException e) {
+                /* one broken sink must not stop sampling for the others */
+                log.log(Level.WARNING, "status sink " + sink + " failed", e);
+            }
+        }
+
+        return interval;
+    }
+
+    /* the most recent interval, null before the first one completes */
+    public Interval getLatest() {
+        return latest;
+    }
+
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new DatabaseStatusMXBeanImpl(), name);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("unable to register "
+                    + OBJECT_NAME, e);
+        }
+    }
+
+    public static class Interval {
+        private final Sample start;
+        private final Sample end;
+        private final Map<String, Long> deltas;
+        private final Map<String, Double> rates;
+
+        public Interval(Sample start, Sample end) {
+            this.start = start;
+            this.end = end;
+            this.deltas = end.deltas(start);
+            this.rates = end.rates(start);
+        }
+
+        public Sample getStart() {
+            return start;
+        }
+
+        public Sample getEnd() {
+            return end;
+        }
+
+        public long getNanos() {
+            return end.getNanoTime() - start.getNanoTime();
+        }
+
+        public Map<String, Long> getDeltas() {
+            return deltas;
+        }
+
+        public Map<String, Double> getRates() {
+            return rates;
+        }
+
+        public double getBufferPoolHitRate() {
+            return end.bufferPoolHitRate(start);
+        }
+    }
+
+    public interface DatabaseStatusMXBean {
+        public long getIntervalMillis();
+
+        public Map<String, Long> getValues();
+
+        public Map<String, Long> getDeltas();
+
+        public Map<String, Double> getRates();
+
+        public double getBufferPoolHitRate();
+    }
+
+    private class DatabaseStatusMXBeanImpl implements DatabaseStatusMXBean {
+        @Override
+        public long getIntervalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
+        }
+
+        @Override
+        public Map<String, Long> getValues() {
+            Interval interval = latest;
+            if (interval == null) {
+                return Collections.emptyMap();
+            }
+
+            return interval.getEnd().getValues();
+        }
+
+        @Override
+        public Map<String, Long> getDeltas() {
+            Interval interval = latest;
+            if (interval == null) {
+                return Collections.emptyMap();
+            }
+
+            return interval.getDeltas();
+        }
+
+        @Override
+        public Map<String, Double> getRates() {
+            Interval interval = latest;
+            if (interval == null) {
+                return Collections.emptyMap();
+            }
+
+            return interval.getRates();
+        }
+
+        @Override
+        public double getBufferPoolHitRate() {
+            Interval interval = latest;
+
+            return interval == null ? Double.NaN : interval
+                    .getBufferPoolHitRate();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.g414.haildb;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -9,6 +10,8 @@ public class IndexDef {
     private final boolean unique;
     private final List<ColumnDef> columns;
     private final Map<String, Integer> prefixLenOverrides;
+    private final RowCodec rowCodec;
+    private volatile Long indexId;
 
     public IndexDef(String name, List<ColumnDef> columns,
             Map<String, Integer> prefixLenOverrides, boolean clustered,
@@ -18,6 +21,7 @@ public class IndexDef {
         this.prefixLenOverrides = prefixLenOverrides;
         this.clustered = clustered;
         this.unique = unique;
+        this.rowCodec = new RowCodec(columns);
     }
 
     public String getName() {
@@ -39,4 +43,32 @@ public class IndexDef {
     public boolean isUnique() {
         return unique;
     }
+
+    /* true if every column can be read from the index record itself */
+    public boolean covers(Collection<String> names) {
+        if (!rowCodec.hasColumns(names)) {
+            return false;
+        }
+
+        for (String name : names) {
+            if (prefixLenOverrides.containsKey(name)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public RowCodec getRowCodec() {
+        return rowCodec;
+    }
+
+    /* the HailDB index id once resolved, null until then */
+    public Long getIndexId() {
+        return indexId;
+    }
+
+    void setIndexId(Long indexId) {
+        this.indexId = indexId;
+    }
 }
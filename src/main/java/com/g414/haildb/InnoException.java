@@ -3,19 +3,90 @@ package com.g414.haildb;
 public class InnoException extends RuntimeException {
     private static final long serialVersionUID = 1L;
 
+    /* no db_err code, e.g. for errors raised on the Java side */
+    public static final int NO_ERROR_CODE = -1;
+
+    private final int errorCode;
+
     public InnoException() {
         super();
+        this.errorCode = NO_ERROR_CODE;
     }
 
     public InnoException(String message, Throwable cause) {
         super(message, cause);
+        this.errorCode = NO_ERROR_CODE;
     }
 
     public InnoException(String message) {
         super(message);
+        this.errorCode = NO_ERROR_CODE;
     }
 
     public InnoException(Throwable cause) {
         super(cause);
+        this.errorCode = NO_ERROR_CODE;
+    }
+
+    public InnoException(int errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    /* the HailDB db_err code, or NO_ERROR_CODE */
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    /* true if the transaction may succeed when run again */
+    public boolean isRetryable() {
+        return false;
+    }
+
+    public static class DeadlockException extends InnoException {
+        private static final long serialVersionUID = 1L;
+
+        public DeadlockException(int errorCode, String message) {
+            super(errorCode, message);
+        }
+
+        @Override
+        public boolean isRetryable() {
+            return true;
+        }
+    }
+
+    public static class LockWaitTimeoutException extends InnoException {
+        private static final long serialVersionUID = 1L;
+
+        public LockWaitTimeoutException(int errorCode, String message) {
+            super(errorCode, message);
+        }
+
+        @Override
+        public boolean isRetryable() {
+            return true;
+        }
+    }
+
+    /*
+     * the transaction committed, but confirming its durability failed;
+     * never retryable, whatever the cause, since a retry would apply the
+     * transaction twice
+     */
+    public static class CommitUnconfirmedException extends InnoException {
+        private static final long serialVersionUID = 1L;
+
+        public CommitUnconfirmedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    public static class DuplicateKeyException extends InnoException {
+        private static final long serialVersionUID = 1L;
+
+        public DuplicateKeyException(int errorCode, String message) {
+            super(errorCode, message);
+        }
     }
 }
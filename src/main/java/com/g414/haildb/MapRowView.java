@@ -0,0 +1,125 @@
+package com.g414.haildb;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MapRowView implements RowView {
+    private final List<ColumnDef> columns;
+    private final Map<String, Object> row;
+
+    public MapRowView(Map<String, Object> row) {
+        this(null, row);
+    }
+
+    public MapRowView(List<ColumnDef> columns, Map<String, Object> row) {
+        this.columns = columns;
+        this.row = row;
+    }
+
+    @Override
+    public List<ColumnDef> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public boolean hasColumn(String name) {
+        return row.containsKey(name);
+    }
+
+    @Override
+    public boolean isNull(String name) {
+        return get(name) == null;
+    }
+
+    @Override
+    public Object get(String name) {
+        if (!row.containsKey(name)) {
+            throw new IllegalArgumentException("unknown column: " + name);
+        }
+
+        return row.get(name);
+    }
+
+    @Override
+    public long getLong(String name) {
+        return getNumber(name).longValue();
+    }
+
+    @Override
+    public int getInt(String name) {
+        return getNumber(name).intValue();
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return getNumber(name).doubleValue();
+    }
+
+    @Override
+    public float getFloat(String name) {
+        return getNumber(name).floatValue();
+    }
+
+    @Override
+    public String getString(String name) {
+        return (String) get(name);
+    }
+
+    @Override
+    public byte[] getBytes(String name) {
+        return (byte[]) get(name);
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer(String name) {
+        byte[] value = getBytes(name);
+
+        return value == null ? null : ByteBuffer.wrap(value).asReadOnlyBuffer();
+    }
+
+    @Override
+    public InputStream getInputStream(String name) {
+        return getStream(name);
+    }
+
+    @Override
+    public ReadableByteChannel getChannel(String name) {
+        return getStream(name);
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        return row;
+    }
+
+    @Override
+    public Map<String, Object> toMap(List<String> names) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>(names
+                .size());
+        for (String name : names) {
+            values.put(name, get(name));
+        }
+
+        return Collections.unmodifiableMap(values);
+    }
+
+    private ByteBufferInputStream getStream(String name) {
+        ByteBuffer value = getByteBuffer(name);
+
+        return value == null ? null : new ByteBufferInputStream(value);
+    }
+
+    private Number getNumber(String name) {
+        Object value = get(name);
+        if (value == null) {
+            throw new IllegalStateException("column is null: " + name);
+        }
+
+        return (Number) value;
+    }
+}
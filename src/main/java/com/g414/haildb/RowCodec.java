@@ -0,0 +1,310 @@
+package com.g414.haildb;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.g414.haildb.impl.jna.HailDB;
+import com.sun.jna.Pointer;
+
+public class RowCodec {
+    private final List<ColumnDef> columns;
+    private final ColumnCodec[] codecs;
+    private final Map<String, Integer> positions;
+
+    public RowCodec(List<ColumnDef> columns) {
+        this.columns = columns;
+        this.codecs = new ColumnCodec[columns.size()];
+
+        Map<String, Integer> newPositions = new HashMap<String, Integer>();
+        for (int i = 0; i < codecs.length; i++) {
+            ColumnDef def = columns.get(i);
+            codecs[i] = createCodec(def);
+            newPositions.put(def.getName(), i);
+        }
+
+        this.positions = Collections.unmodifiableMap(newPositions);
+    }
+
+    public List<ColumnDef> getColumns() {
+        return columns;
+    }
+
+    public int size() {
+        return codecs.length;
+    }
+
+    public ColumnDef getColumn(int i) {
+        return codecs[i].def;
+    }
+
+    public int getPosition(String name) {
+        Integer position = positions.get(name);
+        if (position == null) {
+            throw new IllegalArgumentException("unknown column: " + name);
+        }
+
+        return position;
+    }
+
+    public boolean hasColumn(String name) {
+        return positions.containsKey(name);
+    }
+
+    public int[] getPositions(Collection<String> names) {
+        int[] result = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            result[i++] = getPosition(name);
+        }
+
+        return result;
+    }
+
+    public boolean hasColumns(Collection<String> names) {
+        return positions.keySet().containsAll(names);
+    }
+
+    public Object decode(Tuple tupl, int i) {
+        return codecs[i].read(tupl, i);
+    }
+
+    public Map<String, Object> decode(Tuple tupl) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>(
+                codecs.length);
+
+        for (int i = 0; i < codecs.length; i++) {
+            values.put(codecs[i].name, codecs[i].read(tupl, i));
+        }
+
+        return Collections.unmodifiableMap(values);
+    }
+
+    public Map<String, Object> decode(Tuple tupl, int[] projection) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>(
+                projection.length);
+
+        for (int i : projection) {
+            values.put(codecs[i].name, codecs[i].read(tupl, i));
+        }
+
+        return Collections.unmodifiableMap(values);
+    }
+
+    public long decodeLong(Tuple tupl, int i, int maxLength) {
+        return codecs[i].readLong(tupl, i, maxLength);
+    }
+
+    public double decodeDouble(Tuple tupl, int i) {
+        return codecs[i].readDouble(tupl, i);
+    }
+
+    public float decodeFloat(Tuple tupl, int i) {
+        return codecs[i].readFloat(tupl, i);
+    }
+
+    public void encode(Tuple tupl, int i, Object val, boolean ignoreNull) {
+        ColumnCodec codec = codecs[i];
+
+        if (val == null) {
+            if (!ignoreNull && codec.notNull) {
+                throw new IllegalArgumentException(
+                        "Cannot store null in non-null column: " + codec.name);
+            }
+
+            Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
+                    Pointer.NULL, HailDB.IB_SQL_NULL));
+        } else {
+            if (val instanceof String) {
+                val = TupleStorage.coerceType((String) val, codec.def
+                        .getType());
+            }
+
+            codec.write(tupl, i, val);
+        }
+    }
+
+    public void encode(Tuple tupl, Map<String, Object> data,
+            boolean ignoreNull) {
+        for (int i = 0; i < codecs.length; i++) {
+            encode(tupl, i, data.get(codecs[i].name), ignoreNull);
+        }
+    }
+
+    private static ColumnCodec createCodec(ColumnDef def) {
+        switch (def.getType()) {
+        case BINARY:
+        case VARBINARY:
+        case BLOB:
+            return new BytesCodec(def);
+        case CHAR:
+        case CHAR_ANYCHARSET:
+        case VARCHAR:
+        case VARCHAR_ANYCHARSET:
+            return new StringCodec(def);
+        case INT:
+            return new IntegerCodec(def);
+        case DOUBLE:
+            return new DoubleCodec(def);
+        case FLOAT:
+            return new FloatCodec(def);
+        default:
+            return new UnsupportedCodec(def);
+        }
+    }
+
+    private static abstract class ColumnCodec {
+        protected final ColumnDef def;
+        protected final String name;
+        protected final boolean notNull;
+
+        public ColumnCodec(ColumnDef def) {
+            this.def = def;
+            this.name = def.getName();
+            this.notNull = def.is(ColumnAttribute.NOT_NULL);
+        }
+
+        public abstract Object read(Tuple tupl, int i);
+
+        public abstract void write(Tuple tupl, int i, Object val);
+
+        public long readLong(Tuple tupl, int i, int maxLength) {
+            throw wrongType(ColumnType.INT);
+        }
+
+        public double readDouble(Tuple tupl, int i) {
+            throw wrongType(ColumnType.DOUBLE);
+        }
+
+        public float readFloat(Tuple tupl, int i) {
+            throw wrongType(ColumnType.FLOAT);
+        }
+
+        protected IllegalArgumentException wrongType(ColumnType type) {
+            return new IllegalArgumentException("column " + name
+                    + " is not of type " + type);
+        }
+    }
+
+    private static class BytesCodec extends ColumnCodec {
+        public BytesCodec(ColumnDef def) {
+            super(def);
+        }
+
+        public Object read(Tuple tupl, int i) {
+            return TupleStorage.loadBytes(tupl, i);
+        }
+
+        public void write(Tuple tupl, int i, Object val) {
+            TupleStorage.storeBytes(tupl, i, (byte[]) val);
+        }
+    }
+
+    private static class StringCodec extends ColumnCodec {
+        public StringCodec(ColumnDef def) {
+            super(def);
+        }
+
+        public Object read(Tuple tupl, int i) {
+            return TupleStorage.loadString(tupl, i);
+        }
+
+        public void write(Tuple tupl, int i, Object val) {
+            TupleStorage.storeString(tupl, i, (String) val);
+        }
+    }
+
+    private static class IntegerCodec extends ColumnCodec {
+        private final int length;
+        private final boolean signed;
+
+        public IntegerCodec(ColumnDef def) {
+            super(def);
+            this.length = def.getLength();
+            this.signed = !def.is(ColumnAttribute.UNSIGNED);
+        }
+
+        public Object read(Tuple tupl, int i) {
+            return TupleStorage.loadInteger(tupl, i, length, signed);
+        }
+
+        public long readLong(Tuple tupl, int i, int maxLength) {
+            if (length > maxLength) {
+                throw new IllegalArgumentException("column " + name
+                        + " is wider than " + maxLength + " bytes");
+            }
+
+            return TupleStorage.loadLong(tupl, i, length, signed);
+        }
+
+        public void write(Tuple tupl, int i, Object val) {
+            TupleStorage.storeLong(tupl, i, length, ((Number) val)
+                    .longValue());
+        }
+    }
+
+    private static class DoubleCodec extends ColumnCodec {
+        public DoubleCodec(ColumnDef def) {
+            super(def);
+        }
+
+        public Object read(Tuple tupl, int i) {
+            if (HailDB.ib_col_get_len(tupl.tupl, i) == HailDB.IB_SQL_NULL) {
+                return null;
+            }
+
+            return TupleStorage.loadDouble(tupl, i);
+        }
+
+        public double readDouble(Tuple tupl, int i) {
+            return TupleStorage.loadDouble(tupl, i);
+        }
+
+        public void write(Tuple tupl, int i, Object val) {
+            Util.assertSuccess(HailDB.ib_tuple_write_double(tupl.tupl, i,
+                    ((Number) val).doubleValue()));
+        }
+    }
+
+    private static class FloatCodec extends ColumnCodec {
+        public FloatCodec(ColumnDef def) {
+            super(def);
+        }
+
+        public Object read(Tuple tupl, int i) {
+            if (HailDB.ib_col_get_len(tupl.tupl, i) == HailDB.IB_SQL_NULL) {
+                return null;
+            }
+
+            return TupleStorage.loadFloat(tupl, i);
+        }
+
+        public float readFloat(Tuple tupl, int i) {
+            return TupleStorage.loadFloat(tupl, i);
+        }
+
+        public void write(Tuple tupl, int i, Object val) {
+            Util.assertSuccess(HailDB.ib_tuple_write_float(tupl.tupl, i,
+                    ((Number) val).floatValue()));
+        }
+    }
+
+    private static class UnsupportedCodec extends ColumnCodec {
+        public UnsupportedCodec(ColumnDef def) {
+            super(def);
+        }
+
+        public Object read(Tuple tupl, int i) {
+            throw new IllegalArgumentException("unsupported datatype: "
+                    + def.getType());
+        }
+
+        public void write(Tuple tupl, int i, Object val) {
+            throw new IllegalArgumentException("unsupported type : "
+                    + def.getType());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.g414.haildb;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.Map;
+
+public interface RowView {
+    public List<ColumnDef> getColumns();
+
+    public boolean hasColumn(String name);
+
+    public boolean isNull(String name);
+
+    public Object get(String name);
+
+    public long getLong(String name);
+
+    public int getInt(String name);
+
+    public double getDouble(String name);
+
+    public float getFloat(String name);
+
+    public String getString(String name);
+
+    public byte[] getBytes(String name);
+
+    public ByteBuffer getByteBuffer(String name);
+
+    public InputStream getInputStream(String name);
+
+    public ReadableByteChannel getChannel(String name);
+
+    public Map<String, Object> toMap();
+
+    public Map<String, Object> toMap(List<String> names);
+}
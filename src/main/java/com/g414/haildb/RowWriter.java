@@ -0,0 +1,201 @@
+package com.g414.haildb;
+
+import java.nio.ByteBuffer;
+
+import com.g414.haildb.impl.jna.HailDB;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+public class RowWriter {
+    private final Tuple tupl;
+
+    public RowWriter(Tuple tupl) {
+        this.tupl = tupl;
+    }
+
+    public Tuple getTuple() {
+        return tupl;
+    }
+
+    public RowWriter setNull(int i) {
+        ColumnDef def = getColumn(i);
+
+        if (def.is(ColumnAttribute.NOT_NULL)) {
+            throw new IllegalArgumentException(
+                    "Cannot store null in non-null column: " + def.getName());
+        }
+
+        Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i, Pointer.NULL,
+                HailDB.IB_SQL_NULL));
+
+        return this;
+    }
+
+    public RowWriter setLong(int i, long value) {
+        ColumnDef def = getColumn(i);
+
+        if (!def.getType().isIntegerType()) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not an integer column");
+        }
+
+        TupleStorage.storeLong(tupl, i, def.getLength(), value);
+
+        return this;
+    }
+
+    public RowWriter setInt(int i, int value) {
+        return setLong(i, value);
+    }
+
+    public RowWriter setShort(int i, short value) {
+        return setLong(i, value);
+    }
+
+    public RowWriter setByte(int i, byte value) {
+        return setLong(i, value);
+    }
+
+    public RowWriter setDouble(int i, double value) {
+        ColumnDef def = getColumn(i);
+
+        if (!def.getType().equals(ColumnType.DOUBLE)) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not a double column");
+        }
+
+        Util.assertSuccess(HailDB.ib_tuple_write_double(tupl.tupl, i, value));
+
+        return this;
+    }
+
+    public RowWriter setFloat(int i, float value) {
+        ColumnDef def = getColumn(i);
+
+        if (!def.getType().equals(ColumnType.FLOAT)) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not a float column");
+        }
+
+        Util.assertSuccess(HailDB.ib_tuple_write_float(tupl.tupl, i, value));
+
+        return this;
+    }
+
+    public RowWriter setBytes(int i, byte[] value) {
+        return setBytes(i, value, 0, value.length);
+    }
+
+    public RowWriter setBytes(int i, byte[] value, int offset, int length) {
+        getByteArrayColumn(i);
+
+        if (length == 0) {
+            Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
+                    Pointer.NULL, 0));
+
+            return this;
+        }
+
+        Pointer dst = tupl.getArena().copyOf(value, offset, length);
+
+        Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i, dst, length));
+
+        return this;
+    }
+
+    public RowWriter setBytes(int i, ByteBuffer value) {
+        getByteArrayColumn(i);
+
+        int length = value.remaining();
+
+        if (length == 0) {
+            Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
+                    Pointer.NULL, 0));
+        } else if (value.isDirect()) {
+            /* HailDB copies the value into the tuple, so no staging needed */
+            Pointer src = Native.getDirectBufferPointer(value).share(
+                    value.position());
+            Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i, src,
+                    length));
+        } else if (value.hasArray()) {
+            setBytes(i, value.array(), value.arrayOffset() + value.position(),
+                    length);
+        } else {
+            ByteBuffer dst = tupl.getArena().allocateBuffer(length);
+            dst.put(value.duplicate());
+
+            Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
+                    Native.getDirectBufferPointer(dst), length));
+        }
+
+        return this;
+    }
+
+    public RowWriter setUtf8(int i, CharSequence value) {
+        ColumnDef def = getColumn(i);
+
+        if (!def.getType().isStringType()) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not a string column");
+        }
+
+        ByteBuffer dst = tupl.getArena().allocateBuffer(value.length() * 3 + 1);
+        int length = encodeUtf8(value, dst);
+
+        /* stored NUL-terminated, matching TupleStorage.storeString */
+        Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
+                Native.getDirectBufferPointer(dst), length + 1));
+
+        return this;
+    }
+
+    private ColumnDef getColumn(int i) {
+        return tupl.columns.get(i);
+    }
+
+    private ColumnDef getByteArrayColumn(int i) {
+        ColumnDef def = getColumn(i);
+
+        if (!def.getType().isByteArrayType()) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not a binary column");
+        }
+
+        return def;
+    }
+
+    private static int encodeUtf8(CharSequence value, ByteBuffer dst) {
+        int pos = 0;
+        int n = value.length();
+
+        for (int j = 0; j < n; j++) {
+            char c = value.charAt(j);
+
+            if (c < 0x80) {
+                dst.put(pos++, (byte) c);
+            } else if (c < 0x800) {
+                dst.put(pos++, (byte) (0xC0 | (c >> 6)));
+                dst.put(pos++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && j + 1 < n
+                    && Character.isLowSurrogate(value.charAt(j + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++j));
+                dst.put(pos++, (byte) (0xF0 | (cp >> 18)));
+                dst.put(pos++, (byte) (0x80 | ((cp >> 12) & 0x3F)));
+                dst.put(pos++, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                dst.put(pos++, (byte) (0x80 | (cp & 0x3F)));
+            } else if (c >= Character.MIN_SURROGATE
+                    && c <= Character.MAX_SURROGATE) {
+                /* unpaired surrogate, same replacement as String.getBytes */
+                dst.put(pos++, (byte) '?');
+            } else {
+                dst.put(pos++, (byte) (0xE0 | (c >> 12)));
+                dst.put(pos++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                dst.put(pos++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+
+        dst.put(pos, (byte) 0);
+
+        return pos;
+    }
+}
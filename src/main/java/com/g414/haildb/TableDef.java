@@ -12,6 +12,8 @@ public class TableDef {
     private final Map<String, IndexDef> indexDefs;
     private final List<ColumnDef> colDefs;
     private final IndexDef primaryIndex;
+    private final RowCodec rowCodec;
+    private volatile Long tableId;
 
     public TableDef(String name, Map<String, ColumnDef> columnDefs,
             Map<String, IndexDef> indexDefs, IndexDef primaryIndex) {
@@ -30,6 +32,7 @@ public class TableDef {
         this.indexDefs = Collections.unmodifiableMap(newIdxs);
 
         this.primaryIndex = primaryIndex;
+        this.rowCodec = new RowCodec(this.colDefs);
     }
 
     public String getName() {
@@ -52,7 +55,28 @@ public class TableDef {
         return primaryIndex;
     }
 
+    public RowCodec getRowCodec() {
+        return rowCodec;
+    }
+
     public IndexDef getIndexDef(String index) {
         return indexDefs.get(index);
     }
+
+    /* the HailDB table id once resolved, null until then */
+    public Long getTableId() {
+        return tableId;
+    }
+
+    void setTableId(Long tableId) {
+        this.tableId = tableId;
+    }
+
+    void invalidateIds() {
+        this.tableId = null;
+
+        for (IndexDef index : indexDefs.values()) {
+            index.setIndexId(null);
+        }
+    }
 }
@@ -1,6 +1,15 @@
 package com.g414.haildb;
 
+import java.io.UnsupportedEncodingException;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.g414.haildb.Cursor.LockMode;
 import com.g414.haildb.impl.jna.HailDB;
+import com.sun.jna.Memory;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
 
@@ -49,6 +58,9 @@ public class Transaction {
 
     protected final Pointer trx;
 
+    /* idle cursors, reset and detached, closed when the transaction ends */
+    private final Map<CursorKey, List<Cursor>> cursorCache = new HashMap<CursorKey, List<Cursor>>();
+
     public Transaction(Pointer trx) {
         this.trx = trx;
     }
@@ -56,24 +68,212 @@ public class Transaction {
     public Cursor openTable(TableDef tableDef) {
         PointerByReference crsr = new PointerByReference();
 
-        Util.assertSuccess(HailDB.ib_cursor_open_table(tableDef.getName(), trx,
-                crsr));
+        Long tableId = tableDef.getTableId();
+        if (tableId == null) {
+            tableId = resolveTableId(tableDef);
+        }
+
+        int err = HailDB.db_err.DB_TABLE_NOT_FOUND;
+        if (tableId != null) {
+            err = HailDB.ib_cursor_open_table_using_id(tableId, trx, crsr);
+        }
+
+        if (err == HailDB.db_err.DB_TABLE_NOT_FOUND) {
+            /* stale or unresolved id: fall back to the name lookup */
+            tableDef.invalidateIds();
+            err = HailDB.ib_cursor_open_table(tableDef.getName(), trx, crsr);
+        }
+
+        Util.assertSuccess(err);
+
+        return new Cursor(crsr, tableDef, null, this);
+    }
+
+    /* null if the index id cannot be resolved */
+    Cursor openIndexById(TableDef tableDef, IndexDef indexDef) {
+        Long indexId = indexDef.getIndexId();
+        if (indexId == null) {
+            LongBuffer id = LongBuffer.allocate(1);
+            int err = HailDB.ib_index_get_id(tableDef.getName(), indexDef
+                    .getName(), id);
+            if (err != HailDB.db_err.DB_SUCCESS) {
+                return null;
+            }
+
+            indexId = id.get(0);
+            indexDef.setIndexId(indexId);
+        }
+
+        PointerByReference crsr = new PointerByReference();
+        int err = HailDB.ib_cursor_open_index_using_id(indexId, trx, crsr);
+        if (err != HailDB.db_err.DB_SUCCESS) {
+            indexDef.setIndexId(null);
+
+            return null;
+        }
+
+        return new Cursor(crsr, tableDef, indexDef, this);
+    }
+
+    private static Long resolveTableId(TableDef tableDef) {
+        LongBuffer id = LongBuffer.allocate(1);
+        int err = HailDB.ib_table_get_id(tableDef.getName(), id);
+        if (err != HailDB.db_err.DB_SUCCESS) {
+            return null;
+        }
+
+        Long tableId = id.get(0);
+        tableDef.setTableId(tableId);
+
+        return tableId;
+    }
+
+    /*
+     * returns an open cursor on the table (or one of its indexes) with the
+     * given lock mode, reusing one handed back through returnCursor() when
+     * possible; mode may be null for the default consistent read
+     */
+    public Cursor borrowCursor(TableDef tableDef, String indexName,
+            LockMode mode) {
+        List<Cursor> idle = cursorCache.get(new CursorKey(tableDef, indexName,
+                mode));
+
+        Cursor c;
+        if (idle != null && !idle.isEmpty()) {
+            c = idle.remove(idle.size() - 1);
+
+            try {
+                c.attach(this);
+            } catch (InnoException e) {
+                c.close();
+
+                throw e;
+            }
+        } else if (indexName == null) {
+            c = openTable(tableDef);
+        } else {
+            Cursor table = borrowCursor(tableDef, null, null);
+            try {
+                c = table.openIndex(indexName);
+            } finally {
+                returnCursor(table);
+            }
+        }
+
+        /* set again on reuse, since reset() clears the cursor's lock mode */
+        if (mode != null) {
+            try {
+                c.setLockMode(mode);
+            } catch (InnoException e) {
+                c.close();
+
+                throw e;
+            }
+        }
+
+        return c;
+    }
+
+    public Cursor borrowCursor(TableDef tableDef) {
+        return borrowCursor(tableDef, null, null);
+    }
+
+    public void returnCursor(Cursor c) {
+        try {
+            c.reset();
+        } catch (InnoException e) {
+            c.close();
+
+            throw e;
+        }
 
-        return new Cursor(crsr, tableDef, null);
+        IndexDef index = c.getIndexDef();
+        CursorKey key = new CursorKey(c.getTableDef(), index == null ? null
+                : index.getName(), c.getLockMode());
+
+        List<Cursor> idle = cursorCache.get(key);
+        if (idle == null) {
+            idle = new ArrayList<Cursor>();
+            cursorCache.put(key, idle);
+        }
+
+        idle.add(c);
     }
 
     public void commit() {
+        closeCachedCursors();
         Util.assertSuccess(HailDB.ib_trx_commit(trx));
     }
 
     public void rollback() {
+        closeCachedCursors();
         Util.assertSuccess(HailDB.ib_trx_rollback(trx));
     }
 
     public void release() {
+        closeCachedCursors();
         Util.assertSuccess(HailDB.ib_trx_release(trx));
     }
 
+    private void closeCachedCursors() {
+        RuntimeException failure = null;
+
+        for (List<Cursor> idle : cursorCache.values()) {
+            for (Cursor c : idle) {
+                try {
+                    c.close();
+                } catch (RuntimeException e) {
+                    failure = (failure == null) ? e : failure;
+                }
+            }
+        }
+
+        cursorCache.clear();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /* taking a savepoint with an existing name replaces it */
+    public void savepoint(String name) {
+        Memory nameMemory = toSavepointName(name);
+        HailDB.ib_savepoint_take(trx, nameMemory, (int) nameMemory.getSize());
+    }
+
+    /*
+     * undoes everything after the savepoint, which stays usable; later
+     * savepoints are discarded
+     */
+    public void rollbackTo(String name) {
+        Memory nameMemory = toSavepointName(name);
+        Util.assertSuccess(HailDB.ib_savepoint_rollback(trx, nameMemory,
+                (int) nameMemory.getSize()));
+    }
+
+    public void release(String name) {
+        Memory nameMemory = toSavepointName(name);
+        Util.assertSuccess(HailDB.ib_savepoint_release(trx, nameMemory,
+                (int) nameMemory.getSize()));
+    }
+
+    private static Memory toSavepointName(String name) {
+        if (name == null || name.length() == 0) {
+            throw new IllegalArgumentException(
+                    "savepoint name must not be empty");
+        }
+
+        try {
+            byte[] bytes = name.getBytes("UTF-8");
+            Memory nameMemory = new Memory(bytes.length);
+            nameMemory.write(0, bytes, 0, bytes.length);
+
+            return nameMemory;
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Java doesn't recognize UTF-8?!");
+        }
+    }
+
     public void start(TransactionLevel level) {
         Util.assertSuccess(HailDB.ib_trx_start(trx, level.getCode()));
     }
@@ -85,4 +285,39 @@ public class Transaction {
     public Pointer getTrx() {
         return trx;
     }
+
+    private static class CursorKey {
+        private final String tableName;
+        private final String indexName;
+        private final LockMode mode;
+
+        public CursorKey(TableDef tableDef, String indexName, LockMode mode) {
+            this.tableName = tableDef.getName();
+            this.indexName = indexName;
+            this.mode = mode;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = tableName.hashCode();
+            hash = 31 * hash + (indexName == null ? 0 : indexName.hashCode());
+            hash = 31 * hash + (mode == null ? 0 : mode.hashCode());
+
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CursorKey)) {
+                return false;
+            }
+
+            CursorKey other = (CursorKey) obj;
+
+            return tableName.equals(other.tableName)
+                    && (indexName == null ? other.indexName == null
+                            : indexName.equals(other.indexName))
+                    && mode == other.mode;
+        }
+    }
 }
@@ -1,21 +1,36 @@
 package com.g414.haildb;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import java.util.Map;
 
 import com.g414.haildb.impl.jna.HailDB;
 import com.sun.jna.Pointer;
 
-public class Tuple {
+public class Tuple implements RowView {
     protected final List<ColumnDef> columns;
+    protected final RowCodec codec;
     protected Pointer tupl;
     private volatile boolean deleted = false;
+    private TupleArena arena;
+    private final boolean ownsArena;
 
     public Tuple(Pointer tupl, List<ColumnDef> columns) {
+        this(tupl, columns, null);
+    }
+
+    public Tuple(Pointer tupl, List<ColumnDef> columns, TupleArena arena) {
+        this(tupl, new RowCodec(columns), arena);
+    }
+
+    public Tuple(Pointer tupl, RowCodec codec, TupleArena arena) {
         this.tupl = tupl;
-        this.columns = columns;
+        this.codec = codec;
+        this.columns = codec.getColumns();
+        this.arena = arena;
+        this.ownsArena = (arena == null);
     }
 
     public Map<String, Object> valueMap() {
@@ -23,14 +38,34 @@ public class Tuple {
             throw new IllegalStateException("tuple already deleted!");
         }
 
-        Map<String, Object> values = new LinkedHashMap<String, Object>(
-                this.columns.size());
+        return codec.decode(this);
+    }
 
-        for (ColumnDef def : this.columns) {
-            values.put(def.getName(), this.getValue(def));
+    public Map<String, Object> valueMap(int[] projection) {
+        if (deleted) {
+            throw new IllegalStateException("tuple already deleted!");
         }
 
-        return Collections.unmodifiableMap(values);
+        return codec.decode(this, projection);
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        return valueMap();
+    }
+
+    @Override
+    public Map<String, Object> toMap(List<String> names) {
+        return valueMap(codec.getPositions(names));
+    }
+
+    public RowCodec getRowCodec() {
+        return codec;
+    }
+
+    @Override
+    public List<ColumnDef> getColumns() {
+        return columns;
     }
 
     public void clear() {
@@ -39,6 +74,10 @@ public class Tuple {
         }
 
         tupl = HailDB.ib_tuple_clear(tupl);
+
+        if (arena != null) {
+            arena.reset();
+        }
     }
 
     public void delete() {
@@ -50,26 +89,192 @@ public class Tuple {
             deleted = true;
             HailDB.ib_tuple_delete(tupl);
         }
+
+        if (ownsArena && arena != null) {
+            arena.release();
+        }
+    }
+
+    TupleArena getArena() {
+        if (arena == null) {
+            arena = new TupleArena();
+        }
+
+        return arena;
+    }
+
+    public boolean isNull(int i) {
+        assertNotDeleted();
+
+        return HailDB.ib_col_get_len(tupl, i) == HailDB.IB_SQL_NULL;
+    }
+
+    public long getLong(int i) {
+        assertNotNull(i);
+
+        return codec.decodeLong(this, i, 8);
+    }
+
+    public int getInt(int i) {
+        assertNotNull(i);
+
+        return (int) codec.decodeLong(this, i, 4);
+    }
+
+    public short getShort(int i) {
+        assertNotNull(i);
+
+        return (short) codec.decodeLong(this, i, 2);
+    }
+
+    public byte getByte(int i) {
+        assertNotNull(i);
+
+        return (byte) codec.decodeLong(this, i, 1);
     }
 
-    private Object getValue(ColumnDef def) {
-        switch (def.getType()) {
-        case BINARY:
-        case VARBINARY:
-        case BLOB:
-            return TupleStorage.loadBytes(this, def.getIndex());
-        case CHAR:
-        case CHAR_ANYCHARSET:
-        case VARCHAR:
-        case VARCHAR_ANYCHARSET:
-            return TupleStorage.loadString(this, def.getIndex());
-        case INT:
-            return TupleStorage.loadInteger(this, def.getIndex(),
-                    def.getLength(),
-                    !def.getAttrs().contains(ColumnAttribute.UNSIGNED));
-        default:
-            throw new IllegalArgumentException("unsupported datatype: "
-                    + def.getType());
+    public double getDouble(int i) {
+        assertNotNull(i);
+
+        return codec.decodeDouble(this, i);
+    }
+
+    public float getFloat(int i) {
+        assertNotNull(i);
+
+        return codec.decodeFloat(this, i);
+    }
+
+    public Object get(int i) {
+        assertNotDeleted();
+
+        return codec.decode(this, i);
+    }
+
+    public String getString(int i) {
+        assertNotDeleted();
+
+        ColumnDef def = codec.getColumn(i);
+        if (!def.getType().isStringType()) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not a string column");
+        }
+
+        return TupleStorage.loadString(this, i);
+    }
+
+    public byte[] getBytes(int i) {
+        getByteArrayColumn(i);
+
+        return TupleStorage.loadBytes(this, i);
+    }
+
+    /*
+     * zero-copy view over the column in the tuple heap; only valid until
+     * the tuple is cleared, re-read or deleted
+     */
+    public ByteBuffer getByteBuffer(int i) {
+        getByteArrayColumn(i);
+
+        return TupleStorage.loadByteBuffer(this, i);
+    }
+
+    public InputStream getInputStream(int i) {
+        return getStream(i);
+    }
+
+    public ReadableByteChannel getChannel(int i) {
+        return getStream(i);
+    }
+
+    @Override
+    public boolean hasColumn(String name) {
+        return codec.hasColumn(name);
+    }
+
+    @Override
+    public boolean isNull(String name) {
+        return isNull(codec.getPosition(name));
+    }
+
+    @Override
+    public Object get(String name) {
+        return get(codec.getPosition(name));
+    }
+
+    @Override
+    public long getLong(String name) {
+        return getLong(codec.getPosition(name));
+    }
+
+    @Override
+    public int getInt(String name) {
+        return getInt(codec.getPosition(name));
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return getDouble(codec.getPosition(name));
+    }
+
+    @Override
+    public float getFloat(String name) {
+        return getFloat(codec.getPosition(name));
+    }
+
+    @Override
+    public String getString(String name) {
+        return getString(codec.getPosition(name));
+    }
+
+    @Override
+    public byte[] getBytes(String name) {
+        return getBytes(codec.getPosition(name));
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer(String name) {
+        return getByteBuffer(codec.getPosition(name));
+    }
+
+    @Override
+    public InputStream getInputStream(String name) {
+        return getInputStream(codec.getPosition(name));
+    }
+
+    @Override
+    public ReadableByteChannel getChannel(String name) {
+        return getChannel(codec.getPosition(name));
+    }
+
+    private ByteBufferInputStream getStream(int i) {
+        ByteBuffer value = getByteBuffer(i);
+
+        return value == null ? null : new ByteBufferInputStream(value);
+    }
+
+    private ColumnDef getByteArrayColumn(int i) {
+        assertNotDeleted();
+
+        ColumnDef def = codec.getColumn(i);
+        if (!def.getType().isByteArrayType()) {
+            throw new IllegalArgumentException("column " + def.getName()
+                    + " is not a binary column");
+        }
+
+        return def;
+    }
+
+    private void assertNotNull(int i) {
+        if (isNull(i)) {
+            throw new IllegalStateException("column is null: "
+                    + codec.getColumn(i).getName());
+        }
+    }
+
+    private void assertNotDeleted() {
+        if (deleted) {
+            throw new IllegalStateException("tuple is deleted!");
         }
     }
 }
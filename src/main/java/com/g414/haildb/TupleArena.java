@@ -0,0 +1,138 @@
+package com.g414.haildb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+public class TupleArena {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final int chunkSize;
+    private final List<Chunk> chunks = new ArrayList<Chunk>();
+    private int current = 0;
+    private int offset = 0;
+    private boolean released = false;
+
+    public TupleArena() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public TupleArena(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    public Pointer allocate(int length) {
+        Chunk chunk = reserve(length);
+        Pointer p = chunk.share(offset, length);
+        offset += length;
+
+        return p;
+    }
+
+    public ByteBuffer allocateBuffer(int length) {
+        Chunk chunk = reserve(length);
+        ByteBuffer buf = chunk.buffer.duplicate();
+        buf.limit(offset + length).position(offset);
+        offset += length;
+
+        return buf.slice();
+    }
+
+    public Pointer copyOf(byte[] value, int off, int length) {
+        Chunk chunk = reserve(length);
+        chunk.write(offset, value, off, length);
+        Pointer p = chunk.share(offset, length);
+        offset += length;
+
+        return p;
+    }
+
+    public Pointer copyOfString(byte[] stringBytes) {
+        ByteBuffer buf = allocateBuffer(stringBytes.length + 1);
+        buf.put(stringBytes).put((byte) 0);
+
+        return Native.getDirectBufferPointer(buf);
+    }
+
+    public void reset() {
+        if (released) {
+            return;
+        }
+
+        Iterator<Chunk> iter = chunks.iterator();
+        while (iter.hasNext()) {
+            Chunk chunk = iter.next();
+
+            if (chunk.getSize() > chunkSize) {
+                chunk.dispose();
+                iter.remove();
+            }
+        }
+
+        current = 0;
+        offset = 0;
+    }
+
+    public void release() {
+        if (released) {
+            return;
+        }
+
+        for (Chunk chunk : chunks) {
+            chunk.dispose();
+        }
+
+        chunks.clear();
+        released = true;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    private Chunk reserve(int length) {
+        if (released) {
+            throw new IllegalStateException("arena already released!");
+        }
+
+        while (current < chunks.size()) {
+            Chunk chunk = chunks.get(current);
+            if (offset + length <= chunk.getSize()) {
+                return chunk;
+            }
+
+            current += 1;
+            offset = 0;
+        }
+
+        Chunk chunk = new Chunk(Math.max(chunkSize, length));
+        chunks.add(chunk);
+        current = chunks.size() - 1;
+        offset = 0;
+
+        return chunk;
+    }
+
+    private static class Chunk extends Memory {
+        private final ByteBuffer buffer;
+
+        public Chunk(int size) {
+            super(size);
+            this.buffer = getByteBuffer(0, size);
+        }
+
+        public void dispose() {
+            free(peer);
+            peer = 0;
+        }
+    }
+}
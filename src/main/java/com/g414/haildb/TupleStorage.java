@@ -5,6 +5,8 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
 import java.nio.ShortBuffer;
@@ -92,76 +94,114 @@ public class TupleStorage {
         }
     }
 
+    private static final BigInteger TWO_TO_THE_64 = BigInteger.ONE.shiftLeft(64);
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0)
+            .asReadOnlyBuffer();
+
+    private static final ThreadLocal<ReadScratch> readScratch = new ThreadLocal<ReadScratch>() {
+        @Override
+        protected ReadScratch initialValue() {
+            return new ReadScratch();
+        }
+    };
+
     public static Number loadInteger(Tuple tupl, int i, int length,
             boolean signed) {
-        ByteBuffer buf = ByteBuffer.allocateDirect(length);
-
         if (HailDB.ib_col_get_len(tupl.tupl, i) == HailDB.IB_SQL_NULL) {
             return null;
         }
 
+        long value = loadLong(tupl, i, length, signed);
+
+        if (!signed && length == 8 && value < 0) {
+            return BigInteger.valueOf(value).add(TWO_TO_THE_64);
+        }
+
+        return BigInteger.valueOf(value);
+    }
+
+    public static long loadLong(Tuple tupl, int i, int length, boolean signed) {
+        ReadScratch scratch = readScratch.get();
+
         switch (length) {
         case 1:
-            Util.assertSuccess(HailDB.ib_tuple_read_u8(tupl.tupl, i, buf));
-            break;
+            Util.assertSuccess(HailDB.ib_tuple_read_u8(tupl.tupl, i,
+                    scratch.bytes));
+            byte b = scratch.bytes.get(0);
+            return signed ? b : (b & 0xFFL);
 
         case 2:
-            ShortBuffer sbuf = buf.asShortBuffer();
-            Util.assertSuccess(HailDB.ib_tuple_read_u16(tupl.tupl, i, sbuf));
-            break;
+            Util.assertSuccess(HailDB.ib_tuple_read_u16(tupl.tupl, i,
+                    scratch.shorts));
+            short s = scratch.shorts.get(0);
+            return signed ? s : (s & 0xFFFFL);
 
         case 4:
-            IntBuffer ibuf = buf.asIntBuffer();
-            Util.assertSuccess(HailDB.ib_tuple_read_u32(tupl.tupl, i, ibuf));
-            break;
+            Util.assertSuccess(HailDB.ib_tuple_read_u32(tupl.tupl, i,
+                    scratch.ints));
+            int n = scratch.ints.get(0);
+            return signed ? n : (n & 0xFFFFFFFFL);
 
         case 8:
-            LongBuffer lbuf = buf.asLongBuffer();
-            Util.assertSuccess(HailDB.ib_tuple_read_u64(tupl.tupl, i, lbuf));
-            break;
+            /* unsigned 8-byte values come back as the raw 64 bits */
+            Util.assertSuccess(HailDB.ib_tuple_read_u64(tupl.tupl, i,
+                    scratch.longs));
+            return scratch.longs.get(0);
 
         default:
             throw new IllegalArgumentException("Invalid length: " + length);
         }
+    }
 
-        byte[] theBytes = new byte[length];
-        int k = 0;
-        for (int j = length - 1; j >= 0; j--) {
-            theBytes[k] = buf.get(j);
-            k += 1;
-        }
-        return signed ? new BigInteger(theBytes) : new BigInteger(1, theBytes);
+    public static double loadDouble(Tuple tupl, int i) {
+        ReadScratch scratch = readScratch.get();
+        Util.assertSuccess(HailDB.ib_tuple_read_double(tupl.tupl, i,
+                scratch.doubles));
+
+        return scratch.doubles.get(0);
+    }
+
+    public static float loadFloat(Tuple tupl, int i) {
+        ReadScratch scratch = readScratch.get();
+        Util.assertSuccess(HailDB.ib_tuple_read_float(tupl.tupl, i,
+                scratch.floats));
+
+        return scratch.floats.get(0);
     }
 
     public static void storeInteger(Tuple tupl, ColumnDef colDef, int i,
             Number numVal) {
-        switch (colDef.getLength()) {
+        storeLong(tupl, i, colDef.getLength(), numVal.longValue());
+    }
+
+    public static void storeLong(Tuple tupl, int i, int length, long value) {
+        switch (length) {
         case 1:
             Util.assertSuccess(HailDB.ib_tuple_write_u8(tupl.tupl, i,
-                    numVal.byteValue()));
+                    (byte) value));
             break;
         case 2:
             Util.assertSuccess(HailDB.ib_tuple_write_u16(tupl.tupl, i,
-                    numVal.shortValue()));
+                    (short) value));
             break;
         case 4:
             Util.assertSuccess(HailDB.ib_tuple_write_u32(tupl.tupl, i,
-                    numVal.intValue()));
+                    (int) value));
             break;
         case 8:
-            Util.assertSuccess(HailDB.ib_tuple_write_u64(tupl.tupl, i,
-                    numVal.longValue()));
+            Util.assertSuccess(HailDB.ib_tuple_write_u64(tupl.tupl, i, value));
             break;
         default:
             throw new IllegalArgumentException(
-                    "integer type not supported for length: "
-                            + colDef.getLength());
+                    "integer type not supported for length: " + length);
         }
     }
 
     public static void storeBytes(Tuple tupl, int i, byte[] val) {
+        Pointer valuePointer = val.length == 0 ? Pointer.NULL : tupl
+                .getArena().copyOf(val, 0, val.length);
         Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
-                TupleStorage.getDirectMemoryBytes(val), val.length));
+                valuePointer, val.length));
     }
 
     public static byte[] loadBytes(Tuple tupl, int index) {
@@ -173,11 +213,25 @@ public class TupleStorage {
         return HailDB.ib_col_get_value(tupl.tupl, index).getByteArray(0, len);
     }
 
+    public static ByteBuffer loadByteBuffer(Tuple tupl, int index) {
+        int len = HailDB.ib_col_get_len(tupl.tupl, index);
+        if (len == HailDB.IB_SQL_NULL) {
+            return null;
+        }
+
+        if (len == 0) {
+            return EMPTY_BUFFER.duplicate();
+        }
+
+        /* view over the tuple heap, valid until the tuple is reused */
+        return HailDB.ib_col_get_value(tupl.tupl, index).getByteBuffer(0, len)
+                .asReadOnlyBuffer();
+    }
+
     public static void storeString(Tuple tupl, int i, String stringVal) {
         try {
             byte[] stringBytes = stringVal.getBytes("UTF-8");
-            Pointer stringPointer = TupleStorage
-                    .getDirectMemoryString(stringBytes);
+            Pointer stringPointer = tupl.getArena().copyOfString(stringBytes);
             Util.assertSuccess(HailDB.ib_col_set_value(tupl.tupl, i,
                     stringPointer, stringBytes.length + 1));
         } catch (UnsupportedEncodingException e) {
@@ -194,18 +248,6 @@ public class TupleStorage {
         return HailDB.ib_col_get_value(tupl.tupl, index).getString(0);
     }
 
-    private static Pointer getDirectMemoryBytes(byte[] value) {
-        if (value == null || value.length == 0) {
-            return Pointer.NULL;
-        }
-
-        int len = value.length;
-        Memory m = new Memory(len);
-        m.getByteBuffer(0, len).put(value);
-
-        return Native.getDirectBufferPointer(m.getByteBuffer(0, len));
-    }
-
     public static Pointer getDirectMemoryString(byte[] stringBytes) {
         if (stringBytes == null || stringBytes.length == 0) {
             return Pointer.NULL;
@@ -221,4 +263,14 @@ public class TupleStorage {
 
         return Native.getDirectBufferPointer(buf);
     }
+
+    private static class ReadScratch {
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(8).order(
+                ByteOrder.nativeOrder());
+        private final ShortBuffer shorts = bytes.asShortBuffer();
+        private final IntBuffer ints = bytes.asIntBuffer();
+        private final LongBuffer longs = bytes.asLongBuffer();
+        private final DoubleBuffer doubles = bytes.asDoubleBuffer();
+        private final FloatBuffer floats = bytes.asFloatBuffer();
+    }
 }
@@ -1,19 +1,36 @@
 package com.g414.haildb;
 
+import com.g414.haildb.InnoException.DeadlockException;
+import com.g414.haildb.InnoException.DuplicateKeyException;
+import com.g414.haildb.InnoException.LockWaitTimeoutException;
 import com.g414.haildb.impl.jna.HailDB;
 
 public class Util {
     public static void assertSuccess(int code) {
         if (code != HailDB.db_err.DB_SUCCESS) {
-            throw new InnoException("INNODB Error " + code + " : "
-                    + HailDB.ib_strerror(code).getString(0));
+            throw forErrorCode(code);
         }
     }
 
     public static void assertSchemaOperationSuccess(int code) {
         if (code != HailDB.IB_TRUE) {
-            throw new InnoException("INNODB Error " + code + " : "
-                    + HailDB.ib_strerror(code).getString(0));
+            throw forErrorCode(code);
+        }
+    }
+
+    public static InnoException forErrorCode(int code) {
+        String message = "INNODB Error " + code + " : "
+                + HailDB.ib_strerror(code).getString(0);
+
+        switch (code) {
+        case HailDB.db_err.DB_DEADLOCK:
+            return new DeadlockException(code, message);
+        case HailDB.db_err.DB_LOCK_WAIT_TIMEOUT:
+            return new LockWaitTimeoutException(code, message);
+        case HailDB.db_err.DB_DUPLICATE_KEY:
+            return new DuplicateKeyException(code, message);
+        default:
+            return new InnoException(code, message);
         }
     }
 }
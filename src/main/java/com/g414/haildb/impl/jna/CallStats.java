@@ -0,0 +1,114 @@
+package com.g414.haildb.impl.jna;
+
+import java.beans.ConstructorProperties;
+
+/*
+ * Calls to one native function since startup or the last reset;
+ * percentiles are upper bounds of histogram buckets, within 12.5%.
+ * Count, total, p50, p99, p99.9 and max survive a JMX round trip; the
+ * buckets behind other percentiles do not.
+ */
+public class CallStats {
+    private final long count;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final long[] buckets;
+
+    CallStats(long count, long totalNanos, long[] buckets) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.buckets = buckets;
+        this.p50Nanos = percentileOf(buckets, 50.0);
+        this.p99Nanos = percentileOf(buckets, 99.0);
+        this.p999Nanos = percentileOf(buckets, 99.9);
+        this.maxNanos = percentileOf(buckets, 100.0);
+    }
+
+    /* for JMX clients rebuilding stats from CompositeData */
+    @ConstructorProperties( { "count", "totalNanos", "p50Nanos", "p99Nanos",
+            "p999Nanos", "maxNanos" })
+    public CallStats(long count, long totalNanos, long p50Nanos,
+            long p99Nanos, long p999Nanos, long maxNanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.buckets = null;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getPercentileNanos(double percentile) {
+        if (buckets == null) {
+            throw new IllegalStateException(
+                    "histogram not available on rebuilt stats");
+        }
+
+        return percentileOf(buckets, percentile);
+    }
+
+    private static long percentileOf(long[] buckets, double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException(
+                    "percentile must be between 0 and 100");
+        }
+
+        long total = 0;
+        for (long n : buckets) {
+            total += n;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return NativeStats.LatencyHistogram.upperBound(i);
+            }
+        }
+
+        return NativeStats.LatencyHistogram.upperBound(buckets.length - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "CallStats[count=" + count + ", mean=" + getMeanNanos()
+                + "ns, p50=" + p50Nanos + "ns, p99=" + p99Nanos + "ns, max="
+                + maxNanos + "ns]";
+    }
+}
@@ -8,6 +8,7 @@ import java.nio.LongBuffer;
 import java.nio.ShortBuffer;
 
 import com.g414.haildb.TupleStorage;
+import com.g414.haildb.impl.jna.NativeStats.Probe;
 import com.sun.jna.Callback;
 import com.sun.jna.Library;
 import com.sun.jna.Native;
@@ -20,9 +21,214 @@ public class HailDB implements Library {
     public static final String JNA_LIBRARY_NAME = "haildb";
     public static final NativeLibrary JNA_NATIVE_LIB = NativeLibrary
             .getInstance(HailDB.JNA_LIBRARY_NAME);
-    static {
-        Native.register(HailDB.JNA_LIBRARY_NAME);
-    }
+
+    /* one probe per entry point; see NativeStats */
+    private static final Probe P_ib_api_version = NativeStats
+            .probe("ib_api_version");
+    private static final Probe P_ib_init = NativeStats.probe("ib_init");
+    private static final Probe P_ib_startup = NativeStats.probe("ib_startup");
+    private static final Probe P_ib_shutdown = NativeStats.probe("ib_shutdown");
+    private static final Probe P_ib_trx_start = NativeStats
+            .probe("ib_trx_start");
+    private static final Probe P_ib_trx_begin = NativeStats
+            .probe("ib_trx_begin");
+    private static final Probe P_ib_trx_state = NativeStats
+            .probe("ib_trx_state");
+    private static final Probe P_ib_trx_release = NativeStats
+            .probe("ib_trx_release");
+    private static final Probe P_ib_trx_commit = NativeStats
+            .probe("ib_trx_commit");
+    private static final Probe P_ib_trx_rollback = NativeStats
+            .probe("ib_trx_rollback");
+    private static final Probe P_ib_table_schema_add_col = NativeStats
+            .probe("ib_table_schema_add_col");
+    private static final Probe P_ib_table_schema_add_index = NativeStats
+            .probe("ib_table_schema_add_index");
+    private static final Probe P_ib_table_schema_delete = NativeStats
+            .probe("ib_table_schema_delete");
+    private static final Probe P_ib_table_schema_create = NativeStats
+            .probe("ib_table_schema_create");
+    private static final Probe P_ib_index_schema_add_col = NativeStats
+            .probe("ib_index_schema_add_col");
+    private static final Probe P_ib_index_schema_create = NativeStats
+            .probe("ib_index_schema_create");
+    private static final Probe P_ib_index_schema_set_clustered = NativeStats
+            .probe("ib_index_schema_set_clustered");
+    private static final Probe P_ib_cursor_set_simple_select = NativeStats
+            .probe("ib_cursor_set_simple_select");
+    private static final Probe P_ib_index_schema_set_unique = NativeStats
+            .probe("ib_index_schema_set_unique");
+    private static final Probe P_ib_index_schema_delete = NativeStats
+            .probe("ib_index_schema_delete");
+    private static final Probe P_ib_table_create = NativeStats
+            .probe("ib_table_create");
+    private static final Probe P_ib_table_rename = NativeStats
+            .probe("ib_table_rename");
+    private static final Probe P_ib_index_create = NativeStats
+            .probe("ib_index_create");
+    private static final Probe P_ib_table_drop = NativeStats
+            .probe("ib_table_drop");
+    private static final Probe P_ib_index_drop = NativeStats
+            .probe("ib_index_drop");
+    private static final Probe P_ib_cursor_open_table_using_id = NativeStats
+            .probe("ib_cursor_open_table_using_id");
+    private static final Probe P_ib_cursor_open_index_using_id = NativeStats
+            .probe("ib_cursor_open_index_using_id");
+    private static final Probe P_ib_cursor_open_index_using_name = NativeStats
+            .probe("ib_cursor_open_index_using_name");
+    private static final Probe P_ib_cursor_open_table = NativeStats
+            .probe("ib_cursor_open_table");
+    private static final Probe P_ib_cursor_reset = NativeStats
+            .probe("ib_cursor_reset");
+    private static final Probe P_ib_cursor_close = NativeStats
+            .probe("ib_cursor_close");
+    private static final Probe P_ib_cursor_insert_row = NativeStats
+            .probe("ib_cursor_insert_row");
+    private static final Probe P_ib_cursor_update_row = NativeStats
+            .probe("ib_cursor_update_row");
+    private static final Probe P_ib_cursor_delete_row = NativeStats
+            .probe("ib_cursor_delete_row");
+    private static final Probe P_ib_cursor_read_row = NativeStats
+            .probe("ib_cursor_read_row");
+    private static final Probe P_ib_cursor_prev = NativeStats
+            .probe("ib_cursor_prev");
+    private static final Probe P_ib_cursor_next = NativeStats
+            .probe("ib_cursor_next");
+    private static final Probe P_ib_cursor_first = NativeStats
+            .probe("ib_cursor_first");
+    private static final Probe P_ib_cursor_last = NativeStats
+            .probe("ib_cursor_last");
+    private static final Probe P_ib_cursor_moveto = NativeStats
+            .probe("ib_cursor_moveto");
+    private static final Probe P_ib_cursor_attach_trx = NativeStats
+            .probe("ib_cursor_attach_trx");
+    private static final Probe P_ib_set_client_compare = NativeStats
+            .probe("ib_set_client_compare");
+    private static final Probe P_ib_cursor_set_match_mode = NativeStats
+            .probe("ib_cursor_set_match_mode");
+    private static final Probe P_ib_col_set_value = NativeStats
+            .probe("ib_col_set_value");
+    private static final Probe P_ib_col_get_len = NativeStats
+            .probe("ib_col_get_len");
+    private static final Probe P_ib_col_copy_value = NativeStats
+            .probe("ib_col_copy_value");
+    private static final Probe P_ib_tuple_read_i8 = NativeStats
+            .probe("ib_tuple_read_i8");
+    private static final Probe P_ib_tuple_read_u8 = NativeStats
+            .probe("ib_tuple_read_u8");
+    private static final Probe P_ib_tuple_read_i16 = NativeStats
+            .probe("ib_tuple_read_i16");
+    private static final Probe P_ib_tuple_read_u16 = NativeStats
+            .probe("ib_tuple_read_u16");
+    private static final Probe P_ib_tuple_read_i32 = NativeStats
+            .probe("ib_tuple_read_i32");
+    private static final Probe P_ib_tuple_read_u32 = NativeStats
+            .probe("ib_tuple_read_u32");
+    private static final Probe P_ib_tuple_read_i64 = NativeStats
+            .probe("ib_tuple_read_i64");
+    private static final Probe P_ib_tuple_read_u64 = NativeStats
+            .probe("ib_tuple_read_u64");
+    private static final Probe P_ib_col_get_value = NativeStats
+            .probe("ib_col_get_value");
+    private static final Probe P_ib_col_get_meta = NativeStats
+            .probe("ib_col_get_meta");
+    private static final Probe P_ib_tuple_clear = NativeStats
+            .probe("ib_tuple_clear");
+    private static final Probe P_ib_tuple_get_cluster_key = NativeStats
+            .probe("ib_tuple_get_cluster_key");
+    private static final Probe P_ib_tuple_copy = NativeStats
+            .probe("ib_tuple_copy");
+    private static final Probe P_ib_sec_search_tuple_create = NativeStats
+            .probe("ib_sec_search_tuple_create");
+    private static final Probe P_ib_sec_read_tuple_create = NativeStats
+            .probe("ib_sec_read_tuple_create");
+    private static final Probe P_ib_clust_search_tuple_create = NativeStats
+            .probe("ib_clust_search_tuple_create");
+    private static final Probe P_ib_clust_read_tuple_create = NativeStats
+            .probe("ib_clust_read_tuple_create");
+    private static final Probe P_ib_tuple_get_n_user_cols = NativeStats
+            .probe("ib_tuple_get_n_user_cols");
+    private static final Probe P_ib_tuple_get_n_cols = NativeStats
+            .probe("ib_tuple_get_n_cols");
+    private static final Probe P_ib_tuple_delete = NativeStats
+            .probe("ib_tuple_delete");
+    private static final Probe P_ib_cursor_truncate = NativeStats
+            .probe("ib_cursor_truncate");
+    private static final Probe P_ib_table_truncate = NativeStats
+            .probe("ib_table_truncate");
+    private static final Probe P_ib_table_get_id = NativeStats
+            .probe("ib_table_get_id");
+    private static final Probe P_ib_index_get_id = NativeStats
+            .probe("ib_index_get_id");
+    private static final Probe P_ib_database_create = NativeStats
+            .probe("ib_database_create");
+    private static final Probe P_ib_database_drop = NativeStats
+            .probe("ib_database_drop");
+    private static final Probe P_ib_cursor_is_positioned = NativeStats
+            .probe("ib_cursor_is_positioned");
+    private static final Probe P_ib_schema_lock_shared = NativeStats
+            .probe("ib_schema_lock_shared");
+    private static final Probe P_ib_schema_lock_exclusive = NativeStats
+            .probe("ib_schema_lock_exclusive");
+    private static final Probe P_ib_schema_lock_is_exclusive = NativeStats
+            .probe("ib_schema_lock_is_exclusive");
+    private static final Probe P_ib_schema_lock_is_shared = NativeStats
+            .probe("ib_schema_lock_is_shared");
+    private static final Probe P_ib_schema_unlock = NativeStats
+            .probe("ib_schema_unlock");
+    private static final Probe P_ib_cursor_lock = NativeStats
+            .probe("ib_cursor_lock");
+    private static final Probe P_ib_table_lock = NativeStats
+            .probe("ib_table_lock");
+    private static final Probe P_ib_cursor_set_lock_mode = NativeStats
+            .probe("ib_cursor_set_lock_mode");
+    private static final Probe P_ib_cursor_set_cluster_access = NativeStats
+            .probe("ib_cursor_set_cluster_access");
+    private static final Probe P_ib_table_schema_visit = NativeStats
+            .probe("ib_table_schema_visit");
+    private static final Probe P_ib_schema_tables_iterate = NativeStats
+            .probe("ib_schema_tables_iterate");
+    private static final Probe P_ib_cfg_var_get_type = NativeStats
+            .probe("ib_cfg_var_get_type");
+    private static final Probe P_ib_cfg_set = NativeStats.probe("ib_cfg_set");
+    private static final Probe P_ib_cfg_get = NativeStats.probe("ib_cfg_get");
+    private static final Probe P_ib_cfg_get_all = NativeStats
+            .probe("ib_cfg_get_all");
+    private static final Probe P_ib_savepoint_take = NativeStats
+            .probe("ib_savepoint_take");
+    private static final Probe P_ib_savepoint_release = NativeStats
+            .probe("ib_savepoint_release");
+    private static final Probe P_ib_savepoint_rollback = NativeStats
+            .probe("ib_savepoint_rollback");
+    private static final Probe P_ib_tuple_write_i8 = NativeStats
+            .probe("ib_tuple_write_i8");
+    private static final Probe P_ib_tuple_write_i16 = NativeStats
+            .probe("ib_tuple_write_i16");
+    private static final Probe P_ib_tuple_write_i32 = NativeStats
+            .probe("ib_tuple_write_i32");
+    private static final Probe P_ib_tuple_write_i64 = NativeStats
+            .probe("ib_tuple_write_i64");
+    private static final Probe P_ib_tuple_write_u8 = NativeStats
+            .probe("ib_tuple_write_u8");
+    private static final Probe P_ib_tuple_write_u16 = NativeStats
+            .probe("ib_tuple_write_u16");
+    private static final Probe P_ib_tuple_write_u32 = NativeStats
+            .probe("ib_tuple_write_u32");
+    private static final Probe P_ib_tuple_write_u64 = NativeStats
+            .probe("ib_tuple_write_u64");
+    private static final Probe P_ib_cursor_stmt_begin = NativeStats
+            .probe("ib_cursor_stmt_begin");
+    private static final Probe P_ib_tuple_write_double = NativeStats
+            .probe("ib_tuple_write_double");
+    private static final Probe P_ib_tuple_read_double = NativeStats
+            .probe("ib_tuple_read_double");
+    private static final Probe P_ib_tuple_write_float = NativeStats
+            .probe("ib_tuple_write_float");
+    private static final Probe P_ib_tuple_read_float = NativeStats
+            .probe("ib_tuple_read_float");
+    private static final Probe P_ib_strerror = NativeStats.probe("ib_strerror");
+    private static final Probe P_ib_status_get_i64 = NativeStats
+            .probe("ib_status_get_i64");
 
     public static interface db_err {
         // / < A successult result
@@ -736,221 +942,730 @@ public class HailDB implements Library {
                 Pointer p2, int p2_len);
     }
 
-    public static native long ib_api_version();
+    public static long ib_api_version() {
+        long start = P_ib_api_version.start();
+        long ret = Natives.ib_api_version();
+        P_ib_api_version.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_init() {
+        long start = P_ib_init.start();
+        int ret = Natives.ib_init();
+        P_ib_init.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_startup(String format) {
+        long start = P_ib_startup.start();
+        int ret = Natives.ib_startup(format);
+        P_ib_startup.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_shutdown(int flag) {
+        long start = P_ib_shutdown.start();
+        int ret = Natives.ib_shutdown(flag);
+        P_ib_shutdown.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_trx_start(Pointer ib_trx, int ib_trx_level) {
+        long start = P_ib_trx_start.start();
+        int ret = Natives.ib_trx_start(ib_trx, ib_trx_level);
+        P_ib_trx_start.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_trx_begin(int ib_trx_level) {
+        long start = P_ib_trx_begin.start();
+        Pointer ret = Natives.ib_trx_begin(ib_trx_level);
+        P_ib_trx_begin.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_trx_state(Pointer ib_trx) {
+        long start = P_ib_trx_state.start();
+        int ret = Natives.ib_trx_state(ib_trx);
+        P_ib_trx_state.stop(start);
 
-    public static native int ib_init();
+        return ret;
+    }
+
+    public static int ib_trx_release(Pointer ib_trx) {
+        long start = P_ib_trx_release.start();
+        int ret = Natives.ib_trx_release(ib_trx);
+        P_ib_trx_release.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_trx_commit(Pointer ib_trx) {
+        long start = P_ib_trx_commit.start();
+        int ret = Natives.ib_trx_commit(ib_trx);
+        P_ib_trx_commit.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_trx_rollback(Pointer ib_trx) {
+        long start = P_ib_trx_rollback.start();
+        int ret = Natives.ib_trx_rollback(ib_trx);
+        P_ib_trx_rollback.stop(start);
+
+        return ret;
+    }
 
-    public static native int ib_startup(String format);
+    public static int ib_table_schema_add_col(Pointer ib_tbl_sch, String name,
+            int ib_col_type, int ib_col_attr, short client_type, int len) {
+        long start = P_ib_table_schema_add_col.start();
+        int ret = Natives.ib_table_schema_add_col(ib_tbl_sch, name,
+                ib_col_type, ib_col_attr, client_type, len);
+        P_ib_table_schema_add_col.stop(start);
 
-    public static native int ib_shutdown(int flag);
+        return ret;
+    }
+
+    public static int ib_table_schema_add_index(Pointer ib_tbl_sch,
+            String name, PointerByReference ib_idx_sch) {
+        long start = P_ib_table_schema_add_index.start();
+        int ret = Natives.ib_table_schema_add_index(ib_tbl_sch, name,
+                ib_idx_sch);
+        P_ib_table_schema_add_index.stop(start);
+
+        return ret;
+    }
+
+    public static void ib_table_schema_delete(Pointer ib_tbl_sch) {
+        long start = P_ib_table_schema_delete.start();
+        Natives.ib_table_schema_delete(ib_tbl_sch);
+        P_ib_table_schema_delete.stop(start);
+    }
 
-    public static native int ib_trx_start(Pointer ib_trx, int ib_trx_level);
+    public static int ib_table_schema_create(String name,
+            PointerByReference ib_tbl_sch, int ib_tbl_fmt, int page_size) {
+        long start = P_ib_table_schema_create.start();
+        int ret = Natives.ib_table_schema_create(name, ib_tbl_sch,
+                ib_tbl_fmt, page_size);
+        P_ib_table_schema_create.stop(start);
 
-    public static native Pointer ib_trx_begin(int ib_trx_level);
+        return ret;
+    }
 
-    public static native int ib_trx_state(Pointer ib_trx);
+    public static int ib_index_schema_add_col(Pointer ib_idx_sch, String name,
+            int prefix_len) {
+        long start = P_ib_index_schema_add_col.start();
+        int ret = Natives.ib_index_schema_add_col(ib_idx_sch, name,
+                prefix_len);
+        P_ib_index_schema_add_col.stop(start);
 
-    public static native int ib_trx_release(Pointer ib_trx);
+        return ret;
+    }
 
-    public static native int ib_trx_commit(Pointer ib_trx);
+    public static int ib_index_schema_create(Pointer ib_usr_trx, String name,
+            String table_name, PointerByReference ib_idx_sch) {
+        long start = P_ib_index_schema_create.start();
+        int ret = Natives.ib_index_schema_create(ib_usr_trx, name,
+                table_name, ib_idx_sch);
+        P_ib_index_schema_create.stop(start);
 
-    public static native int ib_trx_rollback(Pointer ib_trx);
+        return ret;
+    }
 
-    public static native int ib_table_schema_add_col(Pointer ib_tbl_sch,
-            String name, int ib_col_type, int ib_col_attr, short client_type,
-            int len);
+    public static int ib_index_schema_set_clustered(Pointer ib_idx_sch) {
+        long start = P_ib_index_schema_set_clustered.start();
+        int ret = Natives.ib_index_schema_set_clustered(ib_idx_sch);
+        P_ib_index_schema_set_clustered.stop(start);
 
-    public static native int ib_table_schema_add_index(Pointer ib_tbl_sch,
-            String name, PointerByReference ib_idx_sch);
+        return ret;
+    }
 
-    public static native void ib_table_schema_delete(Pointer ib_tbl_sch);
+    public static void ib_cursor_set_simple_select(Pointer ib_crsr) {
+        long start = P_ib_cursor_set_simple_select.start();
+        Natives.ib_cursor_set_simple_select(ib_crsr);
+        P_ib_cursor_set_simple_select.stop(start);
+    }
 
-    public static native int ib_table_schema_create(String name,
-            PointerByReference ib_tbl_sch, int ib_tbl_fmt, int page_size);
+    public static int ib_index_schema_set_unique(Pointer ib_idx_sch) {
+        long start = P_ib_index_schema_set_unique.start();
+        int ret = Natives.ib_index_schema_set_unique(ib_idx_sch);
+        P_ib_index_schema_set_unique.stop(start);
 
-    public static native int ib_index_schema_add_col(Pointer ib_idx_sch,
-            String name, int prefix_len);
+        return ret;
+    }
 
-    public static native int ib_index_schema_create(Pointer ib_usr_trx,
-            String name, String table_name, PointerByReference ib_idx_sch);
+    public static void ib_index_schema_delete(Pointer ib_idx_sch) {
+        long start = P_ib_index_schema_delete.start();
+        Natives.ib_index_schema_delete(ib_idx_sch);
+        P_ib_index_schema_delete.stop(start);
+    }
 
-    public static native int ib_index_schema_set_clustered(Pointer ib_idx_sch);
+    public static int ib_table_create(Pointer ib_trx, Pointer ib_tbl_sch,
+            LongBuffer id) {
+        long start = P_ib_table_create.start();
+        int ret = Natives.ib_table_create(ib_trx, ib_tbl_sch, id);
+        P_ib_table_create.stop(start);
 
-    public static native void ib_cursor_set_simple_select(Pointer ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_index_schema_set_unique(Pointer ib_idx_sch);
+    public static int ib_table_rename(Pointer ib_trx, Pointer old_name,
+            Pointer new_name) {
+        long start = P_ib_table_rename.start();
+        int ret = Natives.ib_table_rename(ib_trx, old_name, new_name);
+        P_ib_table_rename.stop(start);
 
-    public static native void ib_index_schema_delete(Pointer ib_idx_sch);
+        return ret;
+    }
 
-    public static native int ib_table_create(Pointer ib_trx,
-            Pointer ib_tbl_sch, LongBuffer id);
+    public static int ib_table_rename(Pointer ib_trx, String old_name,
+            String new_name) {
+        long start = P_ib_table_rename.start();
+        int ret = Natives.ib_table_rename(ib_trx, old_name, new_name);
+        P_ib_table_rename.stop(start);
 
-    public static native int ib_table_rename(Pointer ib_trx, Pointer old_name,
-            Pointer new_name);
+        return ret;
+    }
 
-    public static native int ib_table_rename(Pointer ib_trx, String old_name,
-            String new_name);
+    public static int ib_index_create(Pointer ib_idx_sch, LongBuffer index_id) {
+        long start = P_ib_index_create.start();
+        int ret = Natives.ib_index_create(ib_idx_sch, index_id);
+        P_ib_index_create.stop(start);
 
-    public static native int ib_index_create(Pointer ib_idx_sch,
-            LongBuffer index_id);
+        return ret;
+    }
 
-    public static native int ib_table_drop(Pointer trx, String name);
+    public static int ib_table_drop(Pointer trx, String name) {
+        long start = P_ib_table_drop.start();
+        int ret = Natives.ib_table_drop(trx, name);
+        P_ib_table_drop.stop(start);
 
-    public static native int ib_index_drop(Pointer trx, long index_id);
+        return ret;
+    }
 
-    public static native int ib_cursor_open_table_using_id(long table_id,
-            Pointer ib_trx, PointerByReference ib_crsr);
+    public static int ib_index_drop(Pointer trx, long index_id) {
+        long start = P_ib_index_drop.start();
+        int ret = Natives.ib_index_drop(trx, index_id);
+        P_ib_index_drop.stop(start);
 
-    public static native int ib_cursor_open_index_using_id(long index_id,
-            Pointer ib_trx, PointerByReference ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_cursor_open_index_using_name(
-            Pointer ib_open_crsr, String index_name, PointerByReference ib_crsr);
+    public static int ib_cursor_open_table_using_id(long table_id,
+            Pointer ib_trx, PointerByReference ib_crsr) {
+        long start = P_ib_cursor_open_table_using_id.start();
+        int ret = Natives.ib_cursor_open_table_using_id(table_id, ib_trx,
+                ib_crsr);
+        P_ib_cursor_open_table_using_id.stop(start);
 
-    public static native int ib_cursor_open_table(String name, Pointer ib_trx,
-            PointerByReference ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_cursor_reset(Pointer ib_crsr);
+    public static int ib_cursor_open_index_using_id(long index_id,
+            Pointer ib_trx, PointerByReference ib_crsr) {
+        long start = P_ib_cursor_open_index_using_id.start();
+        int ret = Natives.ib_cursor_open_index_using_id(index_id, ib_trx,
+                ib_crsr);
+        P_ib_cursor_open_index_using_id.stop(start);
 
-    public static native int ib_cursor_close(Pointer ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_cursor_insert_row(Pointer ib_crsr,
-            Pointer ib_tpl);
+    public static int ib_cursor_open_index_using_name(Pointer ib_open_crsr,
+            String index_name, PointerByReference ib_crsr) {
+        long start = P_ib_cursor_open_index_using_name.start();
+        int ret = Natives.ib_cursor_open_index_using_name(ib_open_crsr,
+                index_name, ib_crsr);
+        P_ib_cursor_open_index_using_name.stop(start);
 
-    public static native int ib_cursor_update_row(Pointer ib_crsr,
-            Pointer ib_old_tpl, Pointer ib_new_tpl);
+        return ret;
+    }
 
-    public static native int ib_cursor_delete_row(Pointer ib_crsr);
+    public static int ib_cursor_open_table(String name, Pointer ib_trx,
+            PointerByReference ib_crsr) {
+        long start = P_ib_cursor_open_table.start();
+        int ret = Natives.ib_cursor_open_table(name, ib_trx, ib_crsr);
+        P_ib_cursor_open_table.stop(start);
 
-    public static native int ib_cursor_read_row(Pointer ib_crsr, Pointer ib_tpl);
+        return ret;
+    }
 
-    public static native int ib_cursor_prev(Pointer ib_crsr);
+    public static int ib_cursor_reset(Pointer ib_crsr) {
+        long start = P_ib_cursor_reset.start();
+        int ret = Natives.ib_cursor_reset(ib_crsr);
+        P_ib_cursor_reset.stop(start);
 
-    public static native int ib_cursor_next(Pointer ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_cursor_first(Pointer ib_crsr);
+    public static int ib_cursor_close(Pointer ib_crsr) {
+        long start = P_ib_cursor_close.start();
+        int ret = Natives.ib_cursor_close(ib_crsr);
+        P_ib_cursor_close.stop(start);
 
-    public static native int ib_cursor_last(Pointer ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_cursor_moveto(Pointer ib_crsr, Pointer ib_tpl,
-            int ib_srch_mode, IntBuffer result);
+    public static int ib_cursor_insert_row(Pointer ib_crsr, Pointer ib_tpl) {
+        long start = P_ib_cursor_insert_row.start();
+        int ret = Natives.ib_cursor_insert_row(ib_crsr, ib_tpl);
+        P_ib_cursor_insert_row.stop(start);
 
-    public static native void ib_cursor_attach_trx(Pointer ib_crsr,
-            Pointer ib_trx);
+        return ret;
+    }
 
-    public static native void ib_set_client_compare(
-            HailDB.ib_client_cmp_t client_cmp_func);
+    public static int ib_cursor_update_row(Pointer ib_crsr, Pointer ib_old_tpl,
+            Pointer ib_new_tpl) {
+        long start = P_ib_cursor_update_row.start();
+        int ret = Natives.ib_cursor_update_row(ib_crsr, ib_old_tpl,
+                ib_new_tpl);
+        P_ib_cursor_update_row.stop(start);
 
-    public static native void ib_cursor_set_match_mode(Pointer ib_crsr,
-            int match_mode);
+        return ret;
+    }
 
-    public static native int ib_col_set_value(Pointer ib_tpl, int col_no,
-            Pointer src, int len);
+    public static int ib_cursor_delete_row(Pointer ib_crsr) {
+        long start = P_ib_cursor_delete_row.start();
+        int ret = Natives.ib_cursor_delete_row(ib_crsr);
+        P_ib_cursor_delete_row.stop(start);
 
-    public static native int ib_col_get_len(Pointer ib_tpl, int i);
+        return ret;
+    }
 
-    public static native int ib_col_copy_value(Pointer ib_tpl, int i,
-            Pointer dst, int len);
+    public static int ib_cursor_read_row(Pointer ib_crsr, Pointer ib_tpl) {
+        long start = P_ib_cursor_read_row.start();
+        int ret = Natives.ib_cursor_read_row(ib_crsr, ib_tpl);
+        P_ib_cursor_read_row.stop(start);
 
-    public static native int ib_tuple_read_i8(Pointer ib_tpl, int i,
-            ByteBuffer ival);
+        return ret;
+    }
 
-    public static native int ib_tuple_read_u8(Pointer ib_tpl, int i,
-            ByteBuffer ival);
+    public static int ib_cursor_prev(Pointer ib_crsr) {
+        long start = P_ib_cursor_prev.start();
+        int ret = Natives.ib_cursor_prev(ib_crsr);
+        P_ib_cursor_prev.stop(start);
 
-    public static native int ib_tuple_read_i16(Pointer ib_tpl, int i,
-            ShortBuffer ival);
+        return ret;
+    }
 
-    public static native int ib_tuple_read_u16(Pointer ib_tpl, int i,
-            ShortBuffer ival);
+    public static int ib_cursor_next(Pointer ib_crsr) {
+        long start = P_ib_cursor_next.start();
+        int ret = Natives.ib_cursor_next(ib_crsr);
+        P_ib_cursor_next.stop(start);
 
-    public static native int ib_tuple_read_i32(Pointer ib_tpl, int i,
-            IntBuffer ival);
+        return ret;
+    }
 
-    public static native int ib_tuple_read_u32(Pointer ib_tpl, int i,
-            IntBuffer ival);
+    public static int ib_cursor_first(Pointer ib_crsr) {
+        long start = P_ib_cursor_first.start();
+        int ret = Natives.ib_cursor_first(ib_crsr);
+        P_ib_cursor_first.stop(start);
 
-    public static native int ib_tuple_read_i64(Pointer ib_tpl, int i,
-            LongBuffer ival);
+        return ret;
+    }
 
-    public static native int ib_tuple_read_u64(Pointer ib_tpl, int i,
-            LongBuffer ival);
+    public static int ib_cursor_last(Pointer ib_crsr) {
+        long start = P_ib_cursor_last.start();
+        int ret = Natives.ib_cursor_last(ib_crsr);
+        P_ib_cursor_last.stop(start);
 
-    public static native Pointer ib_col_get_value(Pointer ib_tpl, int i);
+        return ret;
+    }
 
-    public static native int ib_col_get_meta(Pointer ib_tpl, int i,
-            HailDB.ib_col_meta_t ib_col_meta);
+    public static int ib_cursor_moveto(Pointer ib_crsr, Pointer ib_tpl,
+            int ib_srch_mode, IntBuffer result) {
+        long start = P_ib_cursor_moveto.start();
+        int ret = Natives.ib_cursor_moveto(ib_crsr, ib_tpl, ib_srch_mode,
+                result);
+        P_ib_cursor_moveto.stop(start);
 
-    public static native Pointer ib_tuple_clear(Pointer ib_tpl);
+        return ret;
+    }
 
-    public static native int ib_tuple_get_cluster_key(Pointer ib_crsr,
-            PointerByReference ib_dst_tpl, Pointer ib_src_tpl);
+    public static int ib_cursor_attach_trx(Pointer ib_crsr, Pointer ib_trx) {
+        long start = P_ib_cursor_attach_trx.start();
+        int ret = Natives.ib_cursor_attach_trx(ib_crsr, ib_trx);
+        P_ib_cursor_attach_trx.stop(start);
 
-    public static native int ib_tuple_copy(Pointer ib_dst_tpl,
-            Pointer ib_src_tpl);
+        return ret;
+    }
 
-    public static native Pointer ib_sec_search_tuple_create(Pointer ib_crsr);
+    public static void ib_set_client_compare(
+            HailDB.ib_client_cmp_t client_cmp_func) {
+        long start = P_ib_set_client_compare.start();
+        Natives.ib_set_client_compare(client_cmp_func);
+        P_ib_set_client_compare.stop(start);
+    }
 
-    public static native Pointer ib_sec_read_tuple_create(Pointer ib_crsr);
+    public static void ib_cursor_set_match_mode(Pointer ib_crsr,
+            int match_mode) {
+        long start = P_ib_cursor_set_match_mode.start();
+        Natives.ib_cursor_set_match_mode(ib_crsr, match_mode);
+        P_ib_cursor_set_match_mode.stop(start);
+    }
 
-    public static native Pointer ib_clust_search_tuple_create(Pointer ib_crsr);
+    public static int ib_col_set_value(Pointer ib_tpl, int col_no, Pointer src,
+            int len) {
+        long start = P_ib_col_set_value.start();
+        int ret = Natives.ib_col_set_value(ib_tpl, col_no, src, len);
+        P_ib_col_set_value.stop(start);
 
-    public static native Pointer ib_clust_read_tuple_create(Pointer ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_tuple_get_n_user_cols(Pointer ib_tpl);
+    public static int ib_col_get_len(Pointer ib_tpl, int i) {
+        long start = P_ib_col_get_len.start();
+        int ret = Natives.ib_col_get_len(ib_tpl, i);
+        P_ib_col_get_len.stop(start);
 
-    public static native int ib_tuple_get_n_cols(Pointer ib_tpl);
+        return ret;
+    }
 
-    public static native void ib_tuple_delete(Pointer ib_tpl);
+    public static int ib_col_copy_value(Pointer ib_tpl, int i, Pointer dst,
+            int len) {
+        long start = P_ib_col_copy_value.start();
+        int ret = Natives.ib_col_copy_value(ib_tpl, i, dst, len);
+        P_ib_col_copy_value.stop(start);
 
-    public static native int ib_cursor_truncate(PointerByReference ib_crsr,
-            LongBuffer table_id);
+        return ret;
+    }
 
-    public static native int ib_table_truncate(String table_name,
-            LongBuffer table_id);
+    public static int ib_tuple_read_i8(Pointer ib_tpl, int i, ByteBuffer ival) {
+        long start = P_ib_tuple_read_i8.start();
+        int ret = Natives.ib_tuple_read_i8(ib_tpl, i, ival);
+        P_ib_tuple_read_i8.stop(start);
 
-    public static native int ib_table_get_id(String table_name,
-            LongBuffer table_id);
+        return ret;
+    }
 
-    public static native int ib_index_get_id(String table_name,
-            String index_name, java.nio.LongBuffer index_id);
+    public static int ib_tuple_read_u8(Pointer ib_tpl, int i, ByteBuffer ival) {
+        long start = P_ib_tuple_read_u8.start();
+        int ret = Natives.ib_tuple_read_u8(ib_tpl, i, ival);
+        P_ib_tuple_read_u8.stop(start);
 
-    public static native int ib_database_create(String dbname);
+        return ret;
+    }
 
-    public static native int ib_database_drop(String dbname);
+    public static int ib_tuple_read_i16(Pointer ib_tpl, int i,
+            ShortBuffer ival) {
+        long start = P_ib_tuple_read_i16.start();
+        int ret = Natives.ib_tuple_read_i16(ib_tpl, i, ival);
+        P_ib_tuple_read_i16.stop(start);
 
-    public static native int ib_cursor_is_positioned(Pointer ib_crsr);
+        return ret;
+    }
 
-    public static native int ib_schema_lock_shared(Pointer ib_trx);
+    public static int ib_tuple_read_u16(Pointer ib_tpl, int i,
+            ShortBuffer ival) {
+        long start = P_ib_tuple_read_u16.start();
+        int ret = Natives.ib_tuple_read_u16(ib_tpl, i, ival);
+        P_ib_tuple_read_u16.stop(start);
 
-    public static native int ib_schema_lock_exclusive(Pointer ib_trx);
+        return ret;
+    }
 
-    public static native int ib_schema_lock_is_exclusive(Pointer ib_trx);
+    public static int ib_tuple_read_i32(Pointer ib_tpl, int i, IntBuffer ival) {
+        long start = P_ib_tuple_read_i32.start();
+        int ret = Natives.ib_tuple_read_i32(ib_tpl, i, ival);
+        P_ib_tuple_read_i32.stop(start);
 
-    public static native int ib_schema_lock_is_shared(Pointer ib_trx);
+        return ret;
+    }
 
-    public static native int ib_schema_unlock(Pointer ib_trx);
+    public static int ib_tuple_read_u32(Pointer ib_tpl, int i, IntBuffer ival) {
+        long start = P_ib_tuple_read_u32.start();
+        int ret = Natives.ib_tuple_read_u32(ib_tpl, i, ival);
+        P_ib_tuple_read_u32.stop(start);
 
-    public static native int ib_cursor_lock(Pointer ib_crsr, int ib_lck_mode);
+        return ret;
+    }
 
-    public static native int ib_table_lock(Pointer ib_trx, long table_id,
-            int ib_lck_mode);
+    public static int ib_tuple_read_i64(Pointer ib_tpl, int i,
+            LongBuffer ival) {
+        long start = P_ib_tuple_read_i64.start();
+        int ret = Natives.ib_tuple_read_i64(ib_tpl, i, ival);
+        P_ib_tuple_read_i64.stop(start);
 
-    public static native int ib_cursor_set_lock_mode(Pointer ib_crsr,
-            int ib_lck_mode);
+        return ret;
+    }
 
-    public static native void ib_cursor_set_cluster_access(Pointer ib_crsr);
+    public static int ib_tuple_read_u64(Pointer ib_tpl, int i,
+            LongBuffer ival) {
+        long start = P_ib_tuple_read_u64.start();
+        int ret = Natives.ib_tuple_read_u64(ib_tpl, i, ival);
+        P_ib_tuple_read_u64.stop(start);
 
-    public static native int ib_table_schema_visit(Pointer ib_trx, String name,
-            HailDB.ib_schema_visitor_t visitor, Pointer arg);
+        return ret;
+    }
 
-    public static native int ib_schema_tables_iterate(Pointer ib_trx,
-            HailDB.ib_schema_visitor_table_all_t visitor, Pointer arg);
+    public static Pointer ib_col_get_value(Pointer ib_tpl, int i) {
+        long start = P_ib_col_get_value.start();
+        Pointer ret = Natives.ib_col_get_value(ib_tpl, i);
+        P_ib_col_get_value.stop(start);
 
-    public static native int ib_cfg_var_get_type(String name,
-            java.nio.IntBuffer type);
+        return ret;
+    }
 
-    public static native int ib_cfg_set(String name, Pointer value);
+    public static int ib_col_get_meta(Pointer ib_tpl, int i,
+            HailDB.ib_col_meta_t ib_col_meta) {
+        long start = P_ib_col_get_meta.start();
+        int ret = Natives.ib_col_get_meta(ib_tpl, i, ib_col_meta);
+        P_ib_col_get_meta.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_tuple_clear(Pointer ib_tpl) {
+        long start = P_ib_tuple_clear.start();
+        Pointer ret = Natives.ib_tuple_clear(ib_tpl);
+        P_ib_tuple_clear.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_get_cluster_key(Pointer ib_crsr,
+            PointerByReference ib_dst_tpl, Pointer ib_src_tpl) {
+        long start = P_ib_tuple_get_cluster_key.start();
+        int ret = Natives.ib_tuple_get_cluster_key(ib_crsr, ib_dst_tpl,
+                ib_src_tpl);
+        P_ib_tuple_get_cluster_key.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_copy(Pointer ib_dst_tpl, Pointer ib_src_tpl) {
+        long start = P_ib_tuple_copy.start();
+        int ret = Natives.ib_tuple_copy(ib_dst_tpl, ib_src_tpl);
+        P_ib_tuple_copy.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_sec_search_tuple_create(Pointer ib_crsr) {
+        long start = P_ib_sec_search_tuple_create.start();
+        Pointer ret = Natives.ib_sec_search_tuple_create(ib_crsr);
+        P_ib_sec_search_tuple_create.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_sec_read_tuple_create(Pointer ib_crsr) {
+        long start = P_ib_sec_read_tuple_create.start();
+        Pointer ret = Natives.ib_sec_read_tuple_create(ib_crsr);
+        P_ib_sec_read_tuple_create.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_clust_search_tuple_create(Pointer ib_crsr) {
+        long start = P_ib_clust_search_tuple_create.start();
+        Pointer ret = Natives.ib_clust_search_tuple_create(ib_crsr);
+        P_ib_clust_search_tuple_create.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_clust_read_tuple_create(Pointer ib_crsr) {
+        long start = P_ib_clust_read_tuple_create.start();
+        Pointer ret = Natives.ib_clust_read_tuple_create(ib_crsr);
+        P_ib_clust_read_tuple_create.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_get_n_user_cols(Pointer ib_tpl) {
+        long start = P_ib_tuple_get_n_user_cols.start();
+        int ret = Natives.ib_tuple_get_n_user_cols(ib_tpl);
+        P_ib_tuple_get_n_user_cols.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_get_n_cols(Pointer ib_tpl) {
+        long start = P_ib_tuple_get_n_cols.start();
+        int ret = Natives.ib_tuple_get_n_cols(ib_tpl);
+        P_ib_tuple_get_n_cols.stop(start);
+
+        return ret;
+    }
+
+    public static void ib_tuple_delete(Pointer ib_tpl) {
+        long start = P_ib_tuple_delete.start();
+        Natives.ib_tuple_delete(ib_tpl);
+        P_ib_tuple_delete.stop(start);
+    }
+
+    public static int ib_cursor_truncate(PointerByReference ib_crsr,
+            LongBuffer table_id) {
+        long start = P_ib_cursor_truncate.start();
+        int ret = Natives.ib_cursor_truncate(ib_crsr, table_id);
+        P_ib_cursor_truncate.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_table_truncate(String table_name,
+            LongBuffer table_id) {
+        long start = P_ib_table_truncate.start();
+        int ret = Natives.ib_table_truncate(table_name, table_id);
+        P_ib_table_truncate.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_table_get_id(String table_name, LongBuffer table_id) {
+        long start = P_ib_table_get_id.start();
+        int ret = Natives.ib_table_get_id(table_name, table_id);
+        P_ib_table_get_id.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_index_get_id(String table_name, String index_name,
+            java.nio.LongBuffer index_id) {
+        long start = P_ib_index_get_id.start();
+        int ret = Natives.ib_index_get_id(table_name, index_name, index_id);
+        P_ib_index_get_id.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_database_create(String dbname) {
+        long start = P_ib_database_create.start();
+        int ret = Natives.ib_database_create(dbname);
+        P_ib_database_create.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_database_drop(String dbname) {
+        long start = P_ib_database_drop.start();
+        int ret = Natives.ib_database_drop(dbname);
+        P_ib_database_drop.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_cursor_is_positioned(Pointer ib_crsr) {
+        long start = P_ib_cursor_is_positioned.start();
+        int ret = Natives.ib_cursor_is_positioned(ib_crsr);
+        P_ib_cursor_is_positioned.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_schema_lock_shared(Pointer ib_trx) {
+        long start = P_ib_schema_lock_shared.start();
+        int ret = Natives.ib_schema_lock_shared(ib_trx);
+        P_ib_schema_lock_shared.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_schema_lock_exclusive(Pointer ib_trx) {
+        long start = P_ib_schema_lock_exclusive.start();
+        int ret = Natives.ib_schema_lock_exclusive(ib_trx);
+        P_ib_schema_lock_exclusive.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_schema_lock_is_exclusive(Pointer ib_trx) {
+        long start = P_ib_schema_lock_is_exclusive.start();
+        int ret = Natives.ib_schema_lock_is_exclusive(ib_trx);
+        P_ib_schema_lock_is_exclusive.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_schema_lock_is_shared(Pointer ib_trx) {
+        long start = P_ib_schema_lock_is_shared.start();
+        int ret = Natives.ib_schema_lock_is_shared(ib_trx);
+        P_ib_schema_lock_is_shared.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_schema_unlock(Pointer ib_trx) {
+        long start = P_ib_schema_unlock.start();
+        int ret = Natives.ib_schema_unlock(ib_trx);
+        P_ib_schema_unlock.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_cursor_lock(Pointer ib_crsr, int ib_lck_mode) {
+        long start = P_ib_cursor_lock.start();
+        int ret = Natives.ib_cursor_lock(ib_crsr, ib_lck_mode);
+        P_ib_cursor_lock.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_table_lock(Pointer ib_trx, long table_id,
+            int ib_lck_mode) {
+        long start = P_ib_table_lock.start();
+        int ret = Natives.ib_table_lock(ib_trx, table_id, ib_lck_mode);
+        P_ib_table_lock.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_cursor_set_lock_mode(Pointer ib_crsr,
+            int ib_lck_mode) {
+        long start = P_ib_cursor_set_lock_mode.start();
+        int ret = Natives.ib_cursor_set_lock_mode(ib_crsr, ib_lck_mode);
+        P_ib_cursor_set_lock_mode.stop(start);
+
+        return ret;
+    }
+
+    public static void ib_cursor_set_cluster_access(Pointer ib_crsr) {
+        long start = P_ib_cursor_set_cluster_access.start();
+        Natives.ib_cursor_set_cluster_access(ib_crsr);
+        P_ib_cursor_set_cluster_access.stop(start);
+    }
+
+    public static int ib_table_schema_visit(Pointer ib_trx, String name,
+            HailDB.ib_schema_visitor_t visitor, Pointer arg) {
+        long start = P_ib_table_schema_visit.start();
+        int ret = Natives.ib_table_schema_visit(ib_trx, name, visitor, arg);
+        P_ib_table_schema_visit.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_schema_tables_iterate(Pointer ib_trx,
+            HailDB.ib_schema_visitor_table_all_t visitor, Pointer arg) {
+        long start = P_ib_schema_tables_iterate.start();
+        int ret = Natives.ib_schema_tables_iterate(ib_trx, visitor, arg);
+        P_ib_schema_tables_iterate.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_cfg_var_get_type(String name,
+            java.nio.IntBuffer type) {
+        long start = P_ib_cfg_var_get_type.start();
+        int ret = Natives.ib_cfg_var_get_type(name, type);
+        P_ib_cfg_var_get_type.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_cfg_set(String name, Pointer value) {
+        long start = P_ib_cfg_set.start();
+        int ret = Natives.ib_cfg_set(name, value);
+        P_ib_cfg_set.stop(start);
+
+        return ret;
+    }
 
     public static int ib_cfg_set(String name, String value) {
         return HailDB.ib_cfg_set(name,
@@ -973,61 +1688,171 @@ public class HailDB implements Library {
         return HailDB.ib_cfg_set(name, HailDB.IB_FALSE);
     }
 
-    public static native int ib_cfg_get(String name, Pointer value);
+    public static int ib_cfg_get(String name, Pointer value) {
+        long start = P_ib_cfg_get.start();
+        int ret = Natives.ib_cfg_get(name, value);
+        P_ib_cfg_get.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_cfg_get_all(PointerByReference names,
+            IntBuffer names_num) {
+        long start = P_ib_cfg_get_all.start();
+        int ret = Natives.ib_cfg_get_all(names, names_num);
+        P_ib_cfg_get_all.stop(start);
+
+        return ret;
+    }
+
+    public static void ib_savepoint_take(Pointer ib_trx, Pointer name,
+            int name_len) {
+        long start = P_ib_savepoint_take.start();
+        Natives.ib_savepoint_take(ib_trx, name, name_len);
+        P_ib_savepoint_take.stop(start);
+    }
+
+    public static int ib_savepoint_release(Pointer ib_trx, Pointer name,
+            int name_len) {
+        long start = P_ib_savepoint_release.start();
+        int ret = Natives.ib_savepoint_release(ib_trx, name, name_len);
+        P_ib_savepoint_release.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_savepoint_rollback(Pointer ib_trx, Pointer name,
+            int name_len) {
+        long start = P_ib_savepoint_rollback.start();
+        int ret = Natives.ib_savepoint_rollback(ib_trx, name, name_len);
+        P_ib_savepoint_rollback.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_write_i8(Pointer ib_tpl, int col_no, byte val) {
+        long start = P_ib_tuple_write_i8.start();
+        int ret = Natives.ib_tuple_write_i8(ib_tpl, col_no, val);
+        P_ib_tuple_write_i8.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_write_i16(Pointer ib_tpl, int col_no,
+            short val) {
+        long start = P_ib_tuple_write_i16.start();
+        int ret = Natives.ib_tuple_write_i16(ib_tpl, col_no, val);
+        P_ib_tuple_write_i16.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_tuple_write_i32(Pointer ib_tpl, int col_no, int val) {
+        long start = P_ib_tuple_write_i32.start();
+        int ret = Natives.ib_tuple_write_i32(ib_tpl, col_no, val);
+        P_ib_tuple_write_i32.stop(start);
 
-    public static native int ib_cfg_get_all(PointerByReference names,
-            IntBuffer names_num);
+        return ret;
+    }
 
-    public static native void ib_savepoint_take(Pointer ib_trx, Pointer name,
-            int name_len);
+    public static int ib_tuple_write_i64(Pointer ib_tpl, int col_no, long val) {
+        long start = P_ib_tuple_write_i64.start();
+        int ret = Natives.ib_tuple_write_i64(ib_tpl, col_no, val);
+        P_ib_tuple_write_i64.stop(start);
 
-    public static native int ib_savepoint_release(Pointer ib_trx, Pointer name,
-            int name_len);
+        return ret;
+    }
 
-    public static native int ib_savepoint_rollback(Pointer ib_trx,
-            Pointer name, int name_len);
+    public static int ib_tuple_write_u8(Pointer ib_tpl, int col_no, byte val) {
+        long start = P_ib_tuple_write_u8.start();
+        int ret = Natives.ib_tuple_write_u8(ib_tpl, col_no, val);
+        P_ib_tuple_write_u8.stop(start);
 
-    public static native int ib_tuple_write_i8(Pointer ib_tpl, int col_no,
-            byte val);
+        return ret;
+    }
 
-    public static native int ib_tuple_write_i16(Pointer ib_tpl, int col_no,
-            short val);
+    public static int ib_tuple_write_u16(Pointer ib_tpl, int col_no,
+            short val) {
+        long start = P_ib_tuple_write_u16.start();
+        int ret = Natives.ib_tuple_write_u16(ib_tpl, col_no, val);
+        P_ib_tuple_write_u16.stop(start);
 
-    public static native int ib_tuple_write_i32(Pointer ib_tpl, int col_no,
-            int val);
+        return ret;
+    }
 
-    public static native int ib_tuple_write_i64(Pointer ib_tpl, int col_no,
-            long val);
+    public static int ib_tuple_write_u32(Pointer ib_tpl, int col_no, int val) {
+        long start = P_ib_tuple_write_u32.start();
+        int ret = Natives.ib_tuple_write_u32(ib_tpl, col_no, val);
+        P_ib_tuple_write_u32.stop(start);
 
-    public static native int ib_tuple_write_u8(Pointer ib_tpl, int col_no,
-            byte val);
+        return ret;
+    }
 
-    public static native int ib_tuple_write_u16(Pointer ib_tpl, int col_no,
-            short val);
+    public static int ib_tuple_write_u64(Pointer ib_tpl, int col_no, long val) {
+        long start = P_ib_tuple_write_u64.start();
+        int ret = Natives.ib_tuple_write_u64(ib_tpl, col_no, val);
+        P_ib_tuple_write_u64.stop(start);
 
-    public static native int ib_tuple_write_u32(Pointer ib_tpl, int col_no,
-            int val);
+        return ret;
+    }
 
-    public static native int ib_tuple_write_u64(Pointer ib_tpl, int col_no,
-            long val);
+    public static void ib_cursor_stmt_begin(Pointer ib_crsr) {
+        long start = P_ib_cursor_stmt_begin.start();
+        Natives.ib_cursor_stmt_begin(ib_crsr);
+        P_ib_cursor_stmt_begin.stop(start);
+    }
 
-    public static native void ib_cursor_stmt_begin(Pointer ib_crsr);
+    public static int ib_tuple_write_double(Pointer ib_tpl, int col_no,
+            double val) {
+        long start = P_ib_tuple_write_double.start();
+        int ret = Natives.ib_tuple_write_double(ib_tpl, col_no, val);
+        P_ib_tuple_write_double.stop(start);
 
-    public static native int ib_tuple_write_double(Pointer ib_tpl, int col_no,
-            double val);
+        return ret;
+    }
 
-    public static native int ib_tuple_read_double(Pointer ib_tpl, int col_no,
-            DoubleBuffer dval);
+    public static int ib_tuple_read_double(Pointer ib_tpl, int col_no,
+            DoubleBuffer dval) {
+        long start = P_ib_tuple_read_double.start();
+        int ret = Natives.ib_tuple_read_double(ib_tpl, col_no, dval);
+        P_ib_tuple_read_double.stop(start);
 
-    public static native int ib_tuple_write_float(Pointer ib_tpl, int col_no,
-            float val);
+        return ret;
+    }
 
-    public static native int ib_tuple_read_float(Pointer ib_tpl, int col_no,
-            FloatBuffer fval);
+    public static int ib_tuple_write_float(Pointer ib_tpl, int col_no,
+            float val) {
+        long start = P_ib_tuple_write_float.start();
+        int ret = Natives.ib_tuple_write_float(ib_tpl, col_no, val);
+        P_ib_tuple_write_float.stop(start);
 
-    public static native Pointer ib_strerror(int db_errno);
+        return ret;
+    }
 
-    public static native int ib_status_get_i64(String name, LongBuffer dst);
+    public static int ib_tuple_read_float(Pointer ib_tpl, int col_no,
+            FloatBuffer fval) {
+        long start = P_ib_tuple_read_float.start();
+        int ret = Natives.ib_tuple_read_float(ib_tpl, col_no, fval);
+        P_ib_tuple_read_float.stop(start);
+
+        return ret;
+    }
+
+    public static Pointer ib_strerror(int db_errno) {
+        long start = P_ib_strerror.start();
+        Pointer ret = Natives.ib_strerror(db_errno);
+        P_ib_strerror.stop(start);
+
+        return ret;
+    }
+
+    public static int ib_status_get_i64(String name, LongBuffer dst) {
+        long start = P_ib_status_get_i64.start();
+        int ret = Natives.ib_status_get_i64(name, dst);
+        P_ib_status_get_i64.stop(start);
+
+        return ret;
+    }
 
     // / Callback function to compare InnoDB key columns in an index.
     public static final class ib_client_compare {
@@ -1040,4 +1865,281 @@ public class HailDB implements Library {
             return ib_client_compare;
         }
     }
+
+    /* the direct-mapped natives, called through the wrappers above */
+    private static class Natives {
+        static {
+            Native.register(Natives.class, JNA_NATIVE_LIB);
+        }
+
+        static native long ib_api_version();
+
+        static native int ib_init();
+
+        static native int ib_startup(String format);
+
+        static native int ib_shutdown(int flag);
+
+        static native int ib_trx_start(Pointer ib_trx, int ib_trx_level);
+
+        static native Pointer ib_trx_begin(int ib_trx_level);
+
+        static native int ib_trx_state(Pointer ib_trx);
+
+        static native int ib_trx_release(Pointer ib_trx);
+
+        static native int ib_trx_commit(Pointer ib_trx);
+
+        static native int ib_trx_rollback(Pointer ib_trx);
+
+        static native int ib_table_schema_add_col(Pointer ib_tbl_sch,
+                String name, int ib_col_type, int ib_col_attr,
+                short client_type, int len);
+
+        static native int ib_table_schema_add_index(Pointer ib_tbl_sch,
+                String name, PointerByReference ib_idx_sch);
+
+        static native void ib_table_schema_delete(Pointer ib_tbl_sch);
+
+        static native int ib_table_schema_create(String name,
+                PointerByReference ib_tbl_sch, int ib_tbl_fmt, int page_size);
+
+        static native int ib_index_schema_add_col(Pointer ib_idx_sch,
+                String name, int prefix_len);
+
+        static native int ib_index_schema_create(Pointer ib_usr_trx,
+                String name, String table_name, PointerByReference ib_idx_sch);
+
+        static native int ib_index_schema_set_clustered(Pointer ib_idx_sch);
+
+        static native void ib_cursor_set_simple_select(Pointer ib_crsr);
+
+        static native int ib_index_schema_set_unique(Pointer ib_idx_sch);
+
+        static native void ib_index_schema_delete(Pointer ib_idx_sch);
+
+        static native int ib_table_create(Pointer ib_trx, Pointer ib_tbl_sch,
+                LongBuffer id);
+
+        static native int ib_table_rename(Pointer ib_trx, Pointer old_name,
+                Pointer new_name);
+
+        static native int ib_table_rename(Pointer ib_trx, String old_name,
+                String new_name);
+
+        static native int ib_index_create(Pointer ib_idx_sch,
+                LongBuffer index_id);
+
+        static native int ib_table_drop(Pointer trx, String name);
+
+        static native int ib_index_drop(Pointer trx, long index_id);
+
+        static native int ib_cursor_open_table_using_id(long table_id,
+                Pointer ib_trx, PointerByReference ib_crsr);
+
+        static native int ib_cursor_open_index_using_id(long index_id,
+                Pointer ib_trx, PointerByReference ib_crsr);
+
+        static native int ib_cursor_open_index_using_name(Pointer ib_open_crsr,
+                String index_name, PointerByReference ib_crsr);
+
+        static native int ib_cursor_open_table(String name, Pointer ib_trx,
+                PointerByReference ib_crsr);
+
+        static native int ib_cursor_reset(Pointer ib_crsr);
+
+        static native int ib_cursor_close(Pointer ib_crsr);
+
+        static native int ib_cursor_insert_row(Pointer ib_crsr, Pointer ib_tpl);
+
+        static native int ib_cursor_update_row(Pointer ib_crsr,
+                Pointer ib_old_tpl, Pointer ib_new_tpl);
+
+        static native int ib_cursor_delete_row(Pointer ib_crsr);
+
+        static native int ib_cursor_read_row(Pointer ib_crsr, Pointer ib_tpl);
+
+        static native int ib_cursor_prev(Pointer ib_crsr);
+
+        static native int ib_cursor_next(Pointer ib_crsr);
+
+        static native int ib_cursor_first(Pointer ib_crsr);
+
+        static native int ib_cursor_last(Pointer ib_crsr);
+
+        static native int ib_cursor_moveto(Pointer ib_crsr, Pointer ib_tpl,
+                int ib_srch_mode, IntBuffer result);
+
+        static native int ib_cursor_attach_trx(Pointer ib_crsr,
+                Pointer ib_trx);
+
+        static native void ib_set_client_compare(
+                HailDB.ib_client_cmp_t client_cmp_func);
+
+        static native void ib_cursor_set_match_mode(Pointer ib_crsr,
+                int match_mode);
+
+        static native int ib_col_set_value(Pointer ib_tpl, int col_no,
+                Pointer src, int len);
+
+        static native int ib_col_get_len(Pointer ib_tpl, int i);
+
+        static native int ib_col_copy_value(Pointer ib_tpl, int i, Pointer dst,
+                int len);
+
+        static native int ib_tuple_read_i8(Pointer ib_tpl, int i,
+                ByteBuffer ival);
+
+        static native int ib_tuple_read_u8(Pointer ib_tpl, int i,
+                ByteBuffer ival);
+
+        static native int ib_tuple_read_i16(Pointer ib_tpl, int i,
+                ShortBuffer ival);
+
+        static native int ib_tuple_read_u16(Pointer ib_tpl, int i,
+                ShortBuffer ival);
+
+        static native int ib_tuple_read_i32(Pointer ib_tpl, int i,
+                IntBuffer ival);
+
+        static native int ib_tuple_read_u32(Pointer ib_tpl, int i,
+                IntBuffer ival);
+
+        static native int ib_tuple_read_i64(Pointer ib_tpl, int i,
+                LongBuffer ival);
+
+        static native int ib_tuple_read_u64(Pointer ib_tpl, int i,
+                LongBuffer ival);
+
+        static native Pointer ib_col_get_value(Pointer ib_tpl, int i);
+
+        static native int ib_col_get_meta(Pointer ib_tpl, int i,
+                HailDB.ib_col_meta_t ib_col_meta);
+
+        static native Pointer ib_tuple_clear(Pointer ib_tpl);
+
+        static native int ib_tuple_get_cluster_key(Pointer ib_crsr,
+                PointerByReference ib_dst_tpl, Pointer ib_src_tpl);
+
+        static native int ib_tuple_copy(Pointer ib_dst_tpl, Pointer ib_src_tpl);
+
+        static native Pointer ib_sec_search_tuple_create(Pointer ib_crsr);
+
+        static native Pointer ib_sec_read_tuple_create(Pointer ib_crsr);
+
+        static native Pointer ib_clust_search_tuple_create(Pointer ib_crsr);
+
+        static native Pointer ib_clust_read_tuple_create(Pointer ib_crsr);
+
+        static native int ib_tuple_get_n_user_cols(Pointer ib_tpl);
+
+        static native int ib_tuple_get_n_cols(Pointer ib_tpl);
+
+        static native void ib_tuple_delete(Pointer ib_tpl);
+
+        static native int ib_cursor_truncate(PointerByReference ib_crsr,
+                LongBuffer table_id);
+
+        static native int ib_table_truncate(String table_name,
+                LongBuffer table_id);
+
+        static native int ib_table_get_id(String table_name,
+                LongBuffer table_id);
+
+        static native int ib_index_get_id(String table_name, String index_name,
+                java.nio.LongBuffer index_id);
+
+        static native int ib_database_create(String dbname);
+
+        static native int ib_database_drop(String dbname);
+
+        static native int ib_cursor_is_positioned(Pointer ib_crsr);
+
+        static native int ib_schema_lock_shared(Pointer ib_trx);
+
+        static native int ib_schema_lock_exclusive(Pointer ib_trx);
+
+        static native int ib_schema_lock_is_exclusive(Pointer ib_trx);
+
+        static native int ib_schema_lock_is_shared(Pointer ib_trx);
+
+        static native int ib_schema_unlock(Pointer ib_trx);
+
+        static native int ib_cursor_lock(Pointer ib_crsr, int ib_lck_mode);
+
+        static native int ib_table_lock(Pointer ib_trx, long table_id,
+                int ib_lck_mode);
+
+        static native int ib_cursor_set_lock_mode(Pointer ib_crsr,
+                int ib_lck_mode);
+
+        static native void ib_cursor_set_cluster_access(Pointer ib_crsr);
+
+        static native int ib_table_schema_visit(Pointer ib_trx, String name,
+                HailDB.ib_schema_visitor_t visitor, Pointer arg);
+
+        static native int ib_schema_tables_iterate(Pointer ib_trx,
+                HailDB.ib_schema_visitor_table_all_t visitor, Pointer arg);
+
+        static native int ib_cfg_var_get_type(String name,
+                java.nio.IntBuffer type);
+
+        static native int ib_cfg_set(String name, Pointer value);
+
+        static native int ib_cfg_get(String name, Pointer value);
+
+        static native int ib_cfg_get_all(PointerByReference names,
+                IntBuffer names_num);
+
+        static native void ib_savepoint_take(Pointer ib_trx, Pointer name,
+                int name_len);
+
+        static native int ib_savepoint_release(Pointer ib_trx, Pointer name,
+                int name_len);
+
+        static native int ib_savepoint_rollback(Pointer ib_trx, Pointer name,
+                int name_len);
+
+        static native int ib_tuple_write_i8(Pointer ib_tpl, int col_no,
+                byte val);
+
+        static native int ib_tuple_write_i16(Pointer ib_tpl, int col_no,
+                short val);
+
+        static native int ib_tuple_write_i32(Pointer ib_tpl, int col_no,
+                int val);
+
+        static native int ib_tuple_write_i64(Pointer ib_tpl, int col_no,
+                long val);
+
+        static native int ib_tuple_write_u8(Pointer ib_tpl, int col_no,
+                byte val);
+
+        static native int ib_tuple_write_u16(Pointer ib_tpl, int col_no,
+                short val);
+
+        static native int ib_tuple_write_u32(Pointer ib_tpl, int col_no,
+                int val);
+
+        static native int ib_tuple_write_u64(Pointer ib_tpl, int col_no,
+                long val);
+
+        static native void ib_cursor_stmt_begin(Pointer ib_crsr);
+
+        static native int ib_tuple_write_double(Pointer ib_tpl, int col_no,
+                double val);
+
+        static native int ib_tuple_read_double(Pointer ib_tpl, int col_no,
+                DoubleBuffer dval);
+
+        static native int ib_tuple_write_float(Pointer ib_tpl, int col_no,
+                float val);
+
+        static native int ib_tuple_read_float(Pointer ib_tpl, int col_no,
+                FloatBuffer fval);
+
+        static native Pointer ib_strerror(int db_errno);
+
+        static native int ib_status_get_i64(String name, LongBuffer dst);
+    }
 }
@@ -0,0 +1,190 @@
+package com.g414.haildb.impl.jna;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Per-function call counts and latency histograms for the HailDB
+ * natives, switched on at startup with -Dg414.haildb.nativeStats=true.
+ * The switch is a static final, so when it is off the JIT folds the
+ * probes in HailDB's wrappers away and calls go straight to the native.
+ */
+public class NativeStats {
+    public static final String ENABLED_PROPERTY = "g414.haildb.nativeStats";
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    public static final String OBJECT_NAME = "com.g414.haildb:type=NativeStats";
+
+    private static final ConcurrentMap<String, Probe> probes = new ConcurrentHashMap<String, Probe>();
+
+    private NativeStats() {
+    }
+
+    /* one probe per function name; overloads share it */
+    static Probe probe(String function) {
+        Probe probe = new Probe(function);
+        Probe existing = probes.putIfAbsent(function, probe);
+
+        return existing == null ? probe : existing;
+    }
+
+    /* stats of every function called at least once, by name */
+    public static Map<String, CallStats> snapshot() {
+        Map<String, CallStats> stats = new TreeMap<String, CallStats>();
+        for (Probe probe : probes.values()) {
+            CallStats call = probe.snapshot();
+            if (call.getCount() > 0) {
+                stats.put(probe.function, call);
+            }
+        }
+
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public static void reset() {
+        for (Probe probe : probes.values()) {
+            probe.reset();
+        }
+    }
+
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new NativeStatsMXBeanImpl(), name);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("unable to register " + OBJECT_NAME,
+                    e);
+        }
+    }
+
+    public interface NativeStatsMXBean {
+        public boolean isEnabled();
+
+        public Map<String, CallStats> getCalls();
+
+        public void reset();
+    }
+
+    private static class NativeStatsMXBeanImpl implements NativeStatsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return ENABLED;
+        }
+
+        @Override
+        public Map<String, CallStats> getCalls() {
+            return snapshot();
+        }
+
+        @Override
+        public void reset() {
+            NativeStats.reset();
+        }
+    }
+
+    static final class Probe {
+        private final String function;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Probe(String function) {
+            this.function = function;
+        }
+
+        /* a start time for stop(), or 0 when stats are off */
+        long start() {
+            return ENABLED ? System.nanoTime() : 0L;
+        }
+
+        void stop(long start) {
+            if (ENABLED) {
+                long nanos = System.nanoTime() - start;
+
+                count.increment();
+                totalNanos.add(nanos);
+                histogram.record(nanos);
+            }
+        }
+
+        CallStats snapshot() {
+            return new CallStats(count.sum(), totalNanos.sum(), histogram
+                    .snapshot());
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            histogram.reset();
+        }
+    }
+
+    /*
+     * HDR-style log-linear buckets: each power of two is split into
+     * SUB_BUCKETS linear steps, so a bucket's bounds are within 1 /
+     * SUB_BUCKETS (12.5%) of any value in it, from 1ns to 2^63ns
+     */
+    static final class LatencyHistogram {
+        static final int SUB_BUCKET_BITS = 3;
+        static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(
+                (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+
+        void record(long nanos) {
+            buckets.incrementAndGet(bucketOf(Math.max(0, nanos)));
+        }
+
+        long[] snapshot() {
+            long[] copy = new long[buckets.length()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = buckets.get(i);
+            }
+
+            return copy;
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+
+            int shift = 64 - Long.numberOfLeadingZeros(value)
+                    - SUB_BUCKET_BITS - 1;
+
+            return (shift + 1) * SUB_BUCKETS
+                    + (int) ((value >>> shift) - SUB_BUCKETS);
+        }
+
+        /* the largest value that falls in the bucket */
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+
+            int shift = bucket / SUB_BUCKETS - 1;
+            long base = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+            return base + ((1L << shift) - 1);
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.g414.haildb.tpl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
 import com.g414.haildb.Cursor;
@@ -7,21 +13,63 @@ import com.g414.haildb.Cursor.LockMode;
 import com.g414.haildb.Cursor.SearchMode;
 import com.g414.haildb.Database;
 import com.g414.haildb.IndexDef;
+import com.g414.haildb.InnoException;
+import com.g414.haildb.InnoException.DuplicateKeyException;
+import com.g414.haildb.RowView;
+import com.g414.haildb.RowWriter;
 import com.g414.haildb.TableDef;
 import com.g414.haildb.Transaction;
 import com.g414.haildb.Transaction.TransactionLevel;
 import com.g414.haildb.Transaction.TransactionState;
 import com.g414.haildb.Tuple;
+import com.g414.haildb.tpl.Functional.Mapping;
+import com.g414.haildb.tpl.Functional.RowMapping;
 
 public class DatabaseTemplate {
     public interface TransactionCallback<T> {
         public T inTransaction(Transaction txn);
     }
 
+    public interface RowBinder<T> {
+        public void bind(T item, RowWriter writer);
+    }
+
+    /* throw from onError to abort the batch */
+    public interface RowErrorHandler {
+        public void onError(Map<String, Object> row, InnoException error);
+    }
+
+    private static final String BATCH_SAVEPOINT = "insertAll";
+
     protected final Database database;
+    protected final GroupCommitCoordinator groupCommit;
+    protected final MetricsRegistry metrics;
+    protected final SlowOperationLog slowLog;
 
     public DatabaseTemplate(Database database) {
+        this(database, null);
+    }
+
+    /* with a coordinator, inTransaction commits through group commit */
+    public DatabaseTemplate(Database database,
+            GroupCommitCoordinator groupCommit) {
+        this(database, groupCommit, null);
+    }
+
+    /* with a registry, row operations report timings and counts to it */
+    public DatabaseTemplate(Database database,
+            GroupCommitCoordinator groupCommit, MetricsRegistry metrics) {
+        this(database, groupCommit, metrics, null);
+    }
+
+    /* with a slow log, sampled row operations over its threshold go to it */
+    public DatabaseTemplate(Database database,
+            GroupCommitCoordinator groupCommit, MetricsRegistry metrics,
+            SlowOperationLog slowLog) {
         this.database = database;
+        this.groupCommit = groupCommit;
+        this.metrics = metrics;
+        this.slowLog = slowLog;
     }
 
     public <T> T inTransaction(TransactionLevel level,
@@ -47,6 +95,8 @@ public class DatabaseTemplate {
             if (txn != null) {
                 if (txn.getState().equals(TransactionState.NOT_STARTED)) {
                     txn.release();
+                } else if (groupCommit != null) {
+                    groupCommit.commit(txn);
                 } else {
                     txn.commit();
                 }
@@ -55,14 +105,60 @@ public class DatabaseTemplate {
 
     }
 
+    /*
+     * runs the callback in a fresh transaction per attempt, retrying on
+     * deadlock or lock wait timeout; the callback must be safe to re-run
+     */
+    public <T> T inTransaction(TransactionLevel level, RetryPolicy policy,
+            TransactionCallback<T> callback) throws Exception {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return inTransaction(level, callback);
+            } catch (Exception e) {
+                if (!policy.shouldRetry(attempt, e)) {
+                    throw e;
+                }
+
+                policy.backoff(attempt);
+            }
+        }
+    }
+
     public Map<String, Object> load(Transaction txn, TableDef def,
             Map<String, Object> data) {
+        return load(txn, def, data, new RowMapping<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> map(RowView row) {
+                return row.toMap();
+            }
+        });
+    }
+
+    public Map<String, Object> load(Transaction txn, TableDef def,
+            Map<String, Object> data, final List<String> columns) {
+        return load(txn, def, data, new RowMapping<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> map(RowView row) {
+                return row.toMap(columns);
+            }
+        });
+    }
+
+    /*
+     * maps the matching row while it is still in the tuple, so columns the
+     * mapping never touches (e.g. BLOBs) are not copied out
+     */
+    public <T> T load(Transaction txn, TableDef def, Map<String, Object> data,
+            Mapping<T> mapping) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.LOAD, def,
+                data);
         IndexDef primary = def.getPrimaryIndex();
         Cursor c = null;
         Tuple toFind = null;
         Tuple toReturn = null;
         try {
-            c = txn.openTable(def);
+            c = borrowCursor(txn, def, null);
 
             toFind = c.createClusteredIndexSearchTuple(data);
             c.find(toFind, SearchMode.GE);
@@ -71,16 +167,22 @@ public class DatabaseTemplate {
                 toReturn = c.createClusteredIndexReadTuple();
                 c.readRow(toReturn);
 
-                Map<String, Object> found = toReturn.valueMap();
-
-                if (!KeyHelper.matchesPrimaryKey(primary, data, found)) {
+                if (!KeyHelper.matchesPrimaryKey(primary, data, toReturn)) {
+                    countLoad(def, slow, 1, 0);
                     return null;
                 }
             } else {
+                countLoad(def, slow, 1, 0);
                 return null;
             }
 
-            Map<String, Object> res = toReturn.valueMap();
+            countLoad(def, slow, 1, 1);
+            long t = (slow == null) ? 0L : System.nanoTime();
+            T res = Functional.invoke(mapping, toReturn);
+            if (slow != null) {
+                slow.lap(SlowOperationLog.Entry.MAPPING, t);
+            }
+
             toReturn.clear();
 
             return res;
@@ -94,43 +196,454 @@ public class DatabaseTemplate {
             }
 
             if (c != null) {
-                c.close();
+                txn.returnCursor(c);
+            }
+
+            stopTimer(def, MetricsRegistry.LOAD, start);
+            finishSlow(slow);
+        }
+    }
+
+    /*
+     * loads many primary keys over one cursor: keys are visited in index
+     * order, and a key just past the previous row is reached with next()
+     * instead of a fresh descent. Results are in input order, null for
+     * keys not found.
+     */
+    public List<Map<String, Object>> loadAll(Transaction txn, TableDef def,
+            Collection<Map<String, Object>> keys) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.LOAD_ALL, def,
+                null);
+        IndexDef primary = def.getPrimaryIndex();
+        int n = keys.size();
+
+        final IndexKey[] indexKeys = new IndexKey[n];
+        Integer[] order = new Integer[n];
+        int k = 0;
+        for (Map<String, Object> key : keys) {
+            IndexKey indexKey = new IndexKey(primary, key);
+            if (indexKey.size() != primary.getColumns().size()) {
+                throw new IllegalArgumentException(
+                        "key must specify all primary key columns: " + key);
+            }
+
+            indexKeys[k] = indexKey;
+            order[k] = k;
+            k += 1;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return indexKeys[a].compareTo(indexKeys[b]);
+            }
+        });
+
+        List<Map<String, Object>> results = new ArrayList<Map<String, Object>>(
+                Collections.<Map<String, Object>> nCopies(n, null));
+
+        if (n == 0) {
+            return results;
+        }
+
+        Cursor c = null;
+        Tuple toFind = null;
+        Tuple row = null;
+        try {
+            c = borrowCursor(txn, def, null);
+            toFind = c.createClusteredIndexSearchTuple(indexKeys[order[0]]
+                    .getKey());
+            row = c.createClusteredIndexReadTuple();
+
+            int[] positions = indexKeys[0].getPositions(row.getRowCodec());
+            boolean haveRow = false;
+            boolean firstSearch = true;
+            IndexKey previous = null;
+            Map<String, Object> previousResult = null;
+
+            for (int i = 0; i < n; i++) {
+                IndexKey key = indexKeys[order[i]];
+
+                if (previous != null && previous.compareTo(key) == 0) {
+                    results.set(order[i], previousResult);
+                    continue;
+                }
+
+                int cmp = haveRow ? key.compareRow(row, positions) : -1;
+
+                if (haveRow && cmp < 0) {
+                    /* adjacent key: try the next row before descending */
+                    c.next();
+                    haveRow = readIfPositioned(c, row);
+
+                    if (!haveRow) {
+                        /* end of index, no remaining key can match */
+                        break;
+                    }
+
+                    cmp = key.compareRow(row, positions);
+                }
+
+                if (!haveRow || cmp < 0) {
+                    if (!firstSearch) {
+                        toFind.clear();
+                        toFind.getRowCodec().encode(toFind, key.getKey(), true);
+                    }
+
+                    c.find(toFind, SearchMode.GE);
+                    firstSearch = false;
+
+                    haveRow = readIfPositioned(c, row);
+
+                    if (!haveRow) {
+                        break;
+                    }
+
+                    cmp = key.compareRow(row, positions);
+                }
+
+                previous = key;
+                previousResult = (cmp == 0) ? row.valueMap() : null;
+                results.set(order[i], previousResult);
+            }
+
+            row.clear();
+
+            if (metrics != null || slow != null) {
+                long hits = 0;
+                for (Map<String, Object> result : results) {
+                    hits += (result == null) ? 0 : 1;
+                }
+
+                countLoad(def, slow, n, hits);
+            }
+
+            return results;
+        } finally {
+            if (row != null) {
+                row.delete();
+            }
+
+            if (toFind != null) {
+                toFind.delete();
+            }
+
+            if (c != null) {
+                txn.returnCursor(c);
             }
+
+            stopTimer(def, MetricsRegistry.LOAD_ALL, start);
+            finishSlow(slow);
+        }
+    }
+
+    private static boolean readIfPositioned(Cursor c, Tuple row) {
+        if (!c.isPositioned() || !c.hasNext()) {
+            return false;
         }
+
+        row.clear();
+        c.readRow(row);
+
+        return true;
     }
 
     public void insert(Transaction txn, TableDef def, Map<String, Object> data) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.INSERT, def,
+                data);
         Cursor c = null;
         Tuple toInsert = null;
         try {
-            c = txn.openTable(def);
-            c.setLockMode(LockMode.INTENTION_EXCLUSIVE);
-            c.lock(LockMode.LOCK_EXCLUSIVE);
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
 
             toInsert = c.createClusteredIndexReadTuple();
             c.insertRow(toInsert, data);
             toInsert.clear();
+        } catch (DuplicateKeyException e) {
+            count(def, MetricsRegistry.INSERT_DUPLICATE, 1);
+
+            throw e;
+        } finally {
+            if (toInsert != null) {
+                toInsert.delete();
+            }
+
+            if (c != null) {
+                txn.returnCursor(c);
+            }
+
+            stopTimer(def, MetricsRegistry.INSERT, start);
+            finishSlow(slow);
+        }
+    }
+
+    public long insertAll(Transaction txn, TableDef def,
+            Iterable<Map<String, Object>> rows) {
+        return insertAll(txn, def, rows, false);
+    }
+
+    /*
+     * inserts a batch over one cursor and tuple; with sortByKey the rows
+     * are first ordered by primary key so they append to the B-tree
+     */
+    public long insertAll(Transaction txn, TableDef def,
+            Iterable<Map<String, Object>> rows, boolean sortByKey) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.INSERT_ALL,
+                def, null);
+        if (sortByKey) {
+            rows = sortByPrimaryKey(def, rows);
+        }
+
+        Cursor c = null;
+        Tuple toInsert = null;
+        long count = 0;
+        try {
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
+
+            toInsert = c.createClusteredIndexReadTuple();
+
+            for (Map<String, Object> data : rows) {
+                c.insertRow(toInsert, data);
+                count += 1;
+            }
+
+            return count;
+        } finally {
+            if (toInsert != null) {
+                toInsert.delete();
+            }
+
+            if (c != null) {
+                txn.returnCursor(c);
+            }
+
+            stopTimer(def, MetricsRegistry.INSERT_ALL, start);
+            finishSlow(slow);
+        }
+    }
+
+    /*
+     * inserts with a savepoint every savepointEvery rows: a row failing
+     * with a non-retryable error rolls back to the last savepoint, goes to
+     * the handler, and the good rows since the savepoint are re-inserted
+     */
+    public long insertAll(Transaction txn, TableDef def,
+            Iterable<Map<String, Object>> rows, int savepointEvery,
+            RowErrorHandler handler) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.INSERT_ALL,
+                def, null);
+        if (savepointEvery < 1) {
+            throw new IllegalArgumentException(
+                    "savepointEvery must be positive");
+        }
+
+        List<Map<String, Object>> segment = new ArrayList<Map<String, Object>>(
+                savepointEvery);
+
+        Cursor c = null;
+        Tuple toInsert = null;
+        long count = 0;
+        try {
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
+
+            toInsert = c.createClusteredIndexReadTuple();
+            txn.savepoint(BATCH_SAVEPOINT);
+
+            for (Map<String, Object> data : rows) {
+                try {
+                    c.insertRow(toInsert, data);
+                    segment.add(data);
+                    count += 1;
+                } catch (InnoException e) {
+                    if (e.isRetryable()) {
+                        throw e;
+                    }
+
+                    if (e instanceof DuplicateKeyException) {
+                        count(def, MetricsRegistry.INSERT_DUPLICATE, 1);
+                    }
+
+                    txn.rollbackTo(BATCH_SAVEPOINT);
+                    count -= segment.size();
+
+                    handler.onError(data, e);
+
+                    for (Map<String, Object> replay : segment) {
+                        c.insertRow(toInsert, replay);
+                        count += 1;
+                    }
+                }
+
+                if (segment.size() >= savepointEvery) {
+                    txn.savepoint(BATCH_SAVEPOINT);
+                    segment.clear();
+                }
+            }
+
+            txn.release(BATCH_SAVEPOINT);
+
+            return count;
+        } finally {
+            if (toInsert != null) {
+                toInsert.delete();
+            }
+
+            if (c != null) {
+                txn.returnCursor(c);
+            }
+
+            stopTimer(def, MetricsRegistry.INSERT_ALL, start);
+            finishSlow(slow);
+        }
+    }
+
+    /* typed rows written straight into the tuple; order may be null */
+    public <T> long insertAll(Transaction txn, TableDef def,
+            Iterable<T> items, RowBinder<? super T> binder,
+            Comparator<? super T> order) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.INSERT_ALL,
+                def, null);
+        if (order != null) {
+            List<T> sorted = new ArrayList<T>();
+            for (T item : items) {
+                sorted.add(item);
+            }
+
+            Collections.sort(sorted, order);
+            items = sorted;
+        }
+
+        Cursor c = null;
+        Tuple toInsert = null;
+        long count = 0;
+        try {
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
+
+            toInsert = c.createClusteredIndexReadTuple();
+            RowWriter writer = new RowWriter(toInsert);
+
+            for (T item : items) {
+                long t = (slow == null) ? 0L : System.nanoTime();
+                binder.bind(item, writer);
+                if (slow != null) {
+                    slow.lap(SlowOperationLog.Entry.MAPPING, t);
+                }
+
+                c.insertRow(toInsert);
+                count += 1;
+            }
+
+            return count;
         } finally {
             if (toInsert != null) {
                 toInsert.delete();
             }
 
             if (c != null) {
-                c.close();
+                txn.returnCursor(c);
             }
+
+            stopTimer(def, MetricsRegistry.INSERT_ALL, start);
+            finishSlow(slow);
         }
     }
 
+    private Cursor borrowCursor(Transaction txn, TableDef def, LockMode mode) {
+        long start = startTimer();
+        Cursor c = txn.borrowCursor(def, null, mode);
+        stopTimer(def, MetricsRegistry.CURSOR_OPEN, start);
+
+        return c;
+    }
+
+    /* charged to the slow log entry as lock wait */
+    private void lockTable(Cursor c, SlowOperationLog.Entry slow) {
+        long start = (slow == null) ? 0L : System.nanoTime();
+        c.lock(LockMode.LOCK_EXCLUSIVE);
+
+        if (slow != null) {
+            slow.lap(SlowOperationLog.Entry.LOCK_WAIT, start);
+        }
+    }
+
+    private SlowOperationLog.Entry startSlow(String operation, TableDef def,
+            Map<String, Object> data) {
+        return (slowLog == null) ? null : slowLog.start(operation, def, data);
+    }
+
+    private void finishSlow(SlowOperationLog.Entry slow) {
+        if (slow != null) {
+            slowLog.finish(slow);
+        }
+    }
+
+    private void countLoad(TableDef def, SlowOperationLog.Entry slow,
+            long keys, long hits) {
+        count(def, MetricsRegistry.LOAD_HIT, hits);
+        count(def, MetricsRegistry.LOAD_MISS, keys - hits);
+
+        if (slow != null) {
+            slow.addRows(keys, hits);
+        }
+    }
+
+    private long startTimer() {
+        return metrics == null ? 0L : System.nanoTime();
+    }
+
+    private void stopTimer(TableDef def, String operation, long start) {
+        if (metrics != null) {
+            metrics.time(def.getName(), operation, System.nanoTime() - start);
+        }
+    }
+
+    private void count(TableDef def, String name, long delta) {
+        if (metrics != null) {
+            metrics.count(def.getName(), name, delta);
+        }
+    }
+
+    private static List<Map<String, Object>> sortByPrimaryKey(TableDef def,
+            Iterable<Map<String, Object>> rows) {
+        IndexDef primary = def.getPrimaryIndex();
+
+        List<IndexKey> keys = new ArrayList<IndexKey>();
+        for (Map<String, Object> row : rows) {
+            keys.add(new IndexKey(primary, row));
+        }
+
+        Collections.sort(keys);
+
+        List<Map<String, Object>> sorted = new ArrayList<Map<String, Object>>(
+                keys.size());
+        for (IndexKey key : keys) {
+            sorted.add(key.getKey());
+        }
+
+        return sorted;
+    }
+
     public boolean update(Transaction txn, TableDef def,
             Map<String, Object> data) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.UPDATE, def,
+                data);
         IndexDef primary = def.getPrimaryIndex();
         Cursor c = null;
         Tuple toFind = null;
         Tuple toUpdate = null;
         try {
-            c = txn.openTable(def);
-            c.setLockMode(LockMode.INTENTION_EXCLUSIVE);
-            c.lock(LockMode.LOCK_EXCLUSIVE);
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
 
             toFind = c.createClusteredIndexSearchTuple(data);
             c.find(toFind, SearchMode.GE);
@@ -139,12 +652,12 @@ public class DatabaseTemplate {
                 toUpdate = c.createClusteredIndexReadTuple();
                 c.readRow(toUpdate);
 
-                Map<String, Object> found = toUpdate.valueMap();
-
-                if (!KeyHelper.matchesPrimaryKey(primary, data, found)) {
+                if (!KeyHelper.matchesPrimaryKey(primary, data, toUpdate)) {
+                    count(def, MetricsRegistry.UPDATE_NOT_FOUND, 1);
                     return false;
                 }
             } else {
+                count(def, MetricsRegistry.UPDATE_NOT_FOUND, 1);
                 return false;
             }
 
@@ -162,13 +675,19 @@ public class DatabaseTemplate {
             }
 
             if (c != null) {
-                c.close();
+                txn.returnCursor(c);
             }
+
+            stopTimer(def, MetricsRegistry.UPDATE, start);
+            finishSlow(slow);
         }
     }
 
     public boolean insertOrUpdate(Transaction txn, TableDef def,
             Map<String, Object> data) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.INSERT_OR_UPDATE, def,
+                data);
         IndexDef primary = def.getPrimaryIndex();
         Cursor c = null;
         Tuple toFind = null;
@@ -176,9 +695,8 @@ public class DatabaseTemplate {
         Tuple toUpdate = null;
 
         try {
-            c = txn.openTable(def);
-            c.setLockMode(LockMode.INTENTION_EXCLUSIVE);
-            c.lock(LockMode.LOCK_EXCLUSIVE);
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
 
             toFind = c.createClusteredIndexSearchTuple(data);
             c.find(toFind, SearchMode.GE);
@@ -187,9 +705,7 @@ public class DatabaseTemplate {
                 toUpdate = c.createClusteredIndexReadTuple();
                 c.readRow(toUpdate);
 
-                Map<String, Object> found = toUpdate.valueMap();
-
-                if (KeyHelper.matchesPrimaryKey(primary, data, found)) {
+                if (KeyHelper.matchesPrimaryKey(primary, data, toUpdate)) {
                     c.updateRow(toUpdate, data);
                     toUpdate.clear();
 
@@ -216,21 +732,26 @@ public class DatabaseTemplate {
             }
 
             if (c != null) {
-                c.close();
+                txn.returnCursor(c);
             }
+
+            stopTimer(def, MetricsRegistry.INSERT_OR_UPDATE, start);
+            finishSlow(slow);
         }
     }
 
     public boolean delete(Transaction txn, TableDef def,
             Map<String, Object> data) {
+        long start = startTimer();
+        SlowOperationLog.Entry slow = startSlow(MetricsRegistry.DELETE, def,
+                data);
         IndexDef primary = def.getPrimaryIndex();
         Cursor c = null;
         Tuple toFind = null;
         Tuple toDelete = null;
         try {
-            c = txn.openTable(def);
-            c.setLockMode(LockMode.INTENTION_EXCLUSIVE);
-            c.lock(LockMode.LOCK_EXCLUSIVE);
+            c = borrowCursor(txn, def, LockMode.INTENTION_EXCLUSIVE);
+            lockTable(c, slow);
 
             toFind = c.createClusteredIndexSearchTuple(data);
             c.find(toFind, SearchMode.GE);
@@ -239,14 +760,14 @@ public class DatabaseTemplate {
                 toDelete = c.createClusteredIndexReadTuple();
                 c.readRow(toDelete);
 
-                Map<String, Object> found = toDelete.valueMap();
-                if (KeyHelper.matchesPrimaryKey(primary, data, found)) {
+                if (KeyHelper.matchesPrimaryKey(primary, data, toDelete)) {
                     c.deleteRow();
                     toDelete.clear();
                     return true;
                 }
             }
 
+            count(def, MetricsRegistry.DELETE_NOT_FOUND, 1);
             return false;
         } finally {
             if (toDelete != null) {
@@ -258,8 +779,11 @@ public class DatabaseTemplate {
             }
 
             if (c != null) {
-                c.close();
+                txn.returnCursor(c);
             }
+
+            stopTimer(def, MetricsRegistry.DELETE, start);
+            finishSlow(slow);
         }
     }
 }
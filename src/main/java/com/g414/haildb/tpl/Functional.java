@@ -1,15 +1,25 @@
 package com.g414.haildb.tpl;
 
 import java.io.Closeable;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
+import com.g414.haildb.ColumnDef;
+import com.g414.haildb.IndexDef;
 import com.g414.haildb.Cursor;
 import com.g414.haildb.Cursor.CursorDirection;
 import com.g414.haildb.Cursor.LockMode;
 import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.Database;
+import com.g414.haildb.MapRowView;
+import com.g414.haildb.RowView;
 import com.g414.haildb.TableDef;
 import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
 import com.g414.haildb.Tuple;
 
 public class Functional {
@@ -76,9 +86,37 @@ public class Functional {
         public T reduce(Map<String, Object> row, T initial);
     }
 
+    /* merges the results of two adjacent ranges, left before right */
+    public interface Combiner<T> {
+        public T combine(T left, T right);
+    }
+
     public interface Filter extends Mapping<Boolean> {
     }
 
+    /* decodes columns on demand from the live row; no per-row Map */
+    public static abstract class RowMapping<T> implements Mapping<T> {
+        public abstract T map(RowView row);
+
+        @Override
+        public T map(Map<String, Object> row) {
+            return map(new MapRowView(row));
+        }
+    }
+
+    public static abstract class RowReduction<T> implements Reduction<T> {
+        public abstract T reduce(RowView row, T initial);
+
+        @Override
+        public T reduce(Map<String, Object> row, T initial) {
+            return reduce(new MapRowView(row), initial);
+        }
+    }
+
+    public static abstract class RowFilter extends RowMapping<Boolean>
+            implements Filter {
+    }
+
     public static class TraversalSpec {
         private final Target target;
         private final CursorDirection cursorDirection;
@@ -86,6 +124,11 @@ public class Functional {
         private final Map<String, Object> firstKey;
         private final Filter primaryFilter;
         private final Filter filter;
+        private final List<String> columns;
+        private final Map<String, Object> endKey;
+        private final boolean endInclusive;
+        private final MetricsRegistry metrics;
+        private final SlowOperationLog slowLog;
 
         public TraversalSpec(Target target, Map<String, Object> firstKey,
                 Filter primaryFilter, Filter filter) {
@@ -96,12 +139,51 @@ public class Functional {
         public TraversalSpec(Target target, CursorDirection cursorDirection,
                 SearchMode searchMode, Map<String, Object> firstKey,
                 Filter primaryFilter, Filter filter) {
+            this(target, cursorDirection, searchMode, firstKey, primaryFilter,
+                    filter, null);
+        }
+
+        public TraversalSpec(Target target, CursorDirection cursorDirection,
+                SearchMode searchMode, Map<String, Object> firstKey,
+                Filter primaryFilter, Filter filter, List<String> columns) {
+            this(target, cursorDirection, searchMode, firstKey, null, false,
+                    primaryFilter, filter, columns);
+        }
+
+        public TraversalSpec(Target target, CursorDirection cursorDirection,
+                SearchMode searchMode, Map<String, Object> firstKey,
+                Map<String, Object> endKey, boolean endInclusive,
+                Filter primaryFilter, Filter filter, List<String> columns) {
+            this(target, cursorDirection, searchMode, firstKey, endKey,
+                    endInclusive, primaryFilter, filter, columns, null);
+        }
+
+        public TraversalSpec(Target target, CursorDirection cursorDirection,
+                SearchMode searchMode, Map<String, Object> firstKey,
+                Map<String, Object> endKey, boolean endInclusive,
+                Filter primaryFilter, Filter filter, List<String> columns,
+                MetricsRegistry metrics) {
+            this(target, cursorDirection, searchMode, firstKey, endKey,
+                    endInclusive, primaryFilter, filter, columns, metrics,
+                    null);
+        }
+
+        public TraversalSpec(Target target, CursorDirection cursorDirection,
+                SearchMode searchMode, Map<String, Object> firstKey,
+                Map<String, Object> endKey, boolean endInclusive,
+                Filter primaryFilter, Filter filter, List<String> columns,
+                MetricsRegistry metrics, SlowOperationLog slowLog) {
             this.target = target;
             this.cursorDirection = cursorDirection;
             this.searchMode = searchMode;
             this.firstKey = firstKey;
             this.primaryFilter = primaryFilter;
             this.filter = filter;
+            this.columns = columns;
+            this.endKey = endKey;
+            this.endInclusive = endInclusive;
+            this.metrics = metrics;
+            this.slowLog = slowLog;
         }
 
         public Target getTarget() {
@@ -120,6 +202,15 @@ public class Functional {
             return firstKey;
         }
 
+        /* traversal stops at the first row past this (prefix) key */
+        public Map<String, Object> getEndKey() {
+            return endKey;
+        }
+
+        public boolean isEndInclusive() {
+            return endInclusive;
+        }
+
         public Filter getPrimaryFilter() {
             return primaryFilter;
         }
@@ -127,6 +218,20 @@ public class Functional {
         public Filter getFilter() {
             return filter;
         }
+
+        /* null means every column of the table */
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        /* where the traversal reports rows scanned and returned, or null */
+        public MetricsRegistry getMetrics() {
+            return metrics;
+        }
+
+        public SlowOperationLog getSlowLog() {
+            return slowLog;
+        }
     }
 
     public static <T> void foreach(final Transaction txn,
@@ -162,10 +267,10 @@ public class Functional {
             final DatabaseTemplate dbt, final TraversalSpec traversalSpec,
             final Mapping<Mutation> mutation) {
 
-        final Mapping<Mutation> mapping = new Mapping<Functional.Mutation>() {
+        final Mapping<Mutation> mapping = new RowMapping<Functional.Mutation>() {
             @Override
-            public Mutation map(Map<String, Object> row) {
-                Mutation m = mutation.map(row);
+            public Mutation map(RowView row) {
+                Mutation m = invoke(mutation, row);
                 Target target = traversalSpec.getTarget();
 
                 switch (m.getType()) {
@@ -190,7 +295,35 @@ public class Functional {
                 traversalSpec, mapping);
     }
 
-    private static class MapReduction<T> implements Mapping<T> {
+    /*
+     * reads rows on a dedicated thread with its own transaction, keeping
+     * up to capacity rows decoded ahead of the caller
+     */
+    public static <T> Traversal<T> prefetch(final Database db,
+            final TransactionLevel level, final TraversalSpec traversalSpec,
+            final Mapping<T> mapping, final int capacity) {
+        return new PrefetchingTraversal<T>(db, level, traversalSpec, mapping,
+                capacity);
+    }
+
+    /* copies the row (or its projection) out of the cursor's tuple */
+    static final Mapping<RowView> COPY_ROW = new RowMapping<RowView>() {
+        @Override
+        public RowView map(RowView row) {
+            return new MapRowView(row.getColumns(), row.toMap());
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    static <T> T invoke(Mapping<T> mapping, RowView row) {
+        if (mapping instanceof RowMapping<?>) {
+            return ((RowMapping<T>) mapping).map(row);
+        }
+
+        return mapping.map(row.toMap());
+    }
+
+    private static class MapReduction<T> extends RowMapping<T> {
         T accum;
         Reduction<T> r;
 
@@ -199,8 +332,13 @@ public class Functional {
             this.r = r;
         }
 
-        public T map(Map<String, Object> row) {
-            accum = r.reduce(row, accum);
+        @SuppressWarnings("unchecked")
+        public T map(RowView row) {
+            if (r instanceof RowReduction<?>) {
+                accum = ((RowReduction<T>) r).reduce(row, accum);
+            } else {
+                accum = r.reduce(row.toMap(), accum);
+            }
 
             return accum;
         }
@@ -210,6 +348,112 @@ public class Functional {
         }
     }
 
+    /*
+     * the row handed to filters and mappings; legacy Map-based callbacks
+     * share a single materialized map per row
+     */
+    private static class RowSlot implements RowView {
+        private final Tuple tuple;
+        private final int[] projection;
+        private Map<String, Object> materialized;
+
+        public RowSlot(Tuple tuple, int[] projection) {
+            this.tuple = tuple;
+            this.projection = projection;
+        }
+
+        public void read(Cursor c) {
+            materialized = null;
+            tuple.clear();
+            c.readRow(tuple);
+        }
+
+        public void delete() {
+            materialized = null;
+            tuple.delete();
+        }
+
+        @Override
+        public List<ColumnDef> getColumns() {
+            return tuple.getColumns();
+        }
+
+        @Override
+        public boolean hasColumn(String name) {
+            return tuple.hasColumn(name);
+        }
+
+        @Override
+        public boolean isNull(String name) {
+            return tuple.isNull(name);
+        }
+
+        @Override
+        public Object get(String name) {
+            return tuple.get(name);
+        }
+
+        @Override
+        public long getLong(String name) {
+            return tuple.getLong(name);
+        }
+
+        @Override
+        public int getInt(String name) {
+            return tuple.getInt(name);
+        }
+
+        @Override
+        public double getDouble(String name) {
+            return tuple.getDouble(name);
+        }
+
+        @Override
+        public float getFloat(String name) {
+            return tuple.getFloat(name);
+        }
+
+        @Override
+        public String getString(String name) {
+            return tuple.getString(name);
+        }
+
+        @Override
+        public byte[] getBytes(String name) {
+            return tuple.getBytes(name);
+        }
+
+        @Override
+        public Map<String, Object> toMap(List<String> names) {
+            return tuple.toMap(names);
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer(String name) {
+            return tuple.getByteBuffer(name);
+        }
+
+        @Override
+        public InputStream getInputStream(String name) {
+            return tuple.getInputStream(name);
+        }
+
+        @Override
+        public ReadableByteChannel getChannel(String name) {
+            return tuple.getChannel(name);
+        }
+
+        @Override
+        public Map<String, Object> toMap() {
+            if (materialized == null) {
+                materialized = projection == null ? tuple.valueMap() : tuple
+                        .valueMap(projection);
+            }
+
+            return materialized;
+        }
+    }
+
     private static class TraversalImpl<T> implements Traversal<T> {
         private final boolean isSecondary;
         private final boolean isReadOnly;
@@ -218,10 +462,27 @@ public class Functional {
         private final Filter filter;
         private final Mapping<T> mapping;
         private final boolean isAscending;
+        private final boolean endInclusive;
+        private IndexKey endKey;
+        private int[] endKeyPositions;
+
+        private final MetricsRegistry metrics;
+        private final long startNanos;
+        private boolean metricsFlushed;
+
+        /* non-null only while a sampled traversal is open */
+        private final SlowOperationLog slowLog;
+        private SlowOperationLog.Entry slow;
+        private long rowsScanned;
+        private long rowsReturned;
 
         private Cursor c0;
         private Cursor c1;
-        private Map<String, Object> nextItem;
+
+        /* two slots: the pending row and the one being read ahead */
+        private RowSlot current;
+        private RowSlot spare;
+        private RowSlot nextItem;
 
         public TraversalImpl(Transaction txn, TraversalMode traversalMode,
                 TraversalSpec traversalSpec, Mapping<T> mapping) {
@@ -235,16 +496,45 @@ public class Functional {
             this.tableDef = target.getTableDef();
             this.isAscending = traversalSpec.getCursorDirection().equals(
                     CursorDirection.ASC);
+            this.endInclusive = traversalSpec.isEndInclusive();
+            this.metrics = traversalSpec.getMetrics();
+
+            /* checked before any cursor is opened */
+            if (traversalSpec.getEndKey() != null) {
+                IndexDef index = isSecondary ? tableDef.getIndexDef(target
+                        .getIndexDef()) : tableDef.getPrimaryIndex();
 
+                this.endKey = IndexKey.forBound(index, traversalSpec
+                        .getEndKey());
+            }
+
+            this.startNanos = (metrics == null) ? 0L : System.nanoTime();
+            this.slowLog = traversalSpec.getSlowLog();
+            this.slow = (slowLog == null) ? null : slowLog.start(traversalSpec);
+
+            long t = clock();
             this.c0 = txn.openTable(tableDef);
 
+            List<String> columns = traversalSpec.getColumns();
+            boolean isCovering = false;
+
             if (this.isSecondary) {
                 this.c1 = c0.openIndex(target.getIndexDef());
-                this.c1.setClusterAccess();
+
+                /* read straight from the index when it has every column */
+                isCovering = columns != null
+                        && tableDef.getIndexDef(target.getIndexDef()).covers(
+                                columns);
+
+                if (!isCovering) {
+                    this.c1.setClusterAccess();
+                }
             } else {
                 this.c1 = this.c0;
             }
 
+            t = lap(SlowOperationLog.Entry.CURSOR, t);
+
             if (!this.isReadOnly) {
                 try {
                     this.c1.setLockMode(LockMode.INTENTION_EXCLUSIVE);
@@ -256,6 +546,8 @@ public class Functional {
                 }
             }
 
+            t = lap(SlowOperationLog.Entry.LOCK_WAIT, t);
+
             Map<String, Object> firstKey = traversalSpec.getFirstKey();
 
             if (firstKey != null) {
@@ -263,7 +555,11 @@ public class Functional {
                         .createSecondaryIndexSearchTuple(firstKey) : c1
                         .createClusteredIndexSearchTuple(firstKey);
 
-                c1.find(tuple, traversalSpec.getSearchMode());
+                try {
+                    c1.find(tuple, traversalSpec.getSearchMode());
+                } finally {
+                    tuple.delete();
+                }
             } else {
                 if (this.isAscending) {
                     c1.first();
@@ -272,25 +568,68 @@ public class Functional {
                 }
             }
 
+            lap(SlowOperationLog.Entry.CURSOR, t);
+
+            if (metrics != null) {
+                metrics.time(tableDef.getName(), MetricsRegistry.CURSOR_OPEN,
+                        System.nanoTime() - startNanos);
+            }
+
+            this.current = createSlot(isCovering, columns);
+            this.spare = createSlot(isCovering, columns);
+
+            if (endKey != null) {
+                this.endKeyPositions = endKey.getPositions(current.tuple
+                        .getRowCodec());
+            }
+
             nextItem = advance();
         }
 
-        private Map<String, Object> advance() {
-            Map<String, Object> toReturn = null;
+        private RowSlot createSlot(boolean isCovering, List<String> columns) {
+            Tuple tuple = isCovering ? c1.createSecondaryIndexReadTuple() : c1
+                    .createClusteredIndexReadTuple();
+
+            int[] projection = columns == null ? null : tuple.getRowCodec()
+                    .getPositions(columns);
+
+            return new RowSlot(tuple, projection);
+        }
+
+        private RowSlot advance() {
+            RowSlot toReturn = null;
+            RowSlot slot = spare;
+            long t = clock();
 
             while (c1 != null && c1.isPositioned() && c1.hasNext()) {
-                Tuple read = c1.createClusteredIndexReadTuple();
                 try {
-                    c1.readRow(read);
-                    Map<String, Object> row = read.valueMap();
+                    slot.read(c1);
+                    rowsScanned += 1;
+                    t = lap(SlowOperationLog.Entry.CURSOR, t);
+
+                    boolean pastEnd = endKey != null
+                            && isPastEnd(slot.tuple);
+                    t = lap(SlowOperationLog.Entry.DECODE, t);
 
-                    if (!primaryFilter.map(row)) {
-                        close();
+                    if (pastEnd) {
+                        closeCursors();
                         break;
                     }
 
-                    if (filter == null || filter.map(row)) {
-                        toReturn = row;
+                    boolean isDone = primaryFilter != null
+                            && !invoke(primaryFilter, slot);
+                    boolean isMatch = !isDone
+                            && (filter == null || invoke(filter, slot));
+                    t = lap(SlowOperationLog.Entry.FILTER, t);
+
+                    if (isDone) {
+                        closeCursors();
+                        break;
+                    }
+
+                    if (isMatch) {
+                        toReturn = slot;
+                        rowsReturned += 1;
                         break;
                     }
                 } catch (Exception e) {
@@ -298,7 +637,6 @@ public class Functional {
 
                     throw new RuntimeException(e);
                 } finally {
-                    read.delete();
                     if (c1 != null) {
                         if (this.isAscending) {
                             c1.next();
@@ -306,16 +644,30 @@ public class Functional {
                             c1.prev();
                         }
                     }
+
+                    t = lap(SlowOperationLog.Entry.CURSOR, t);
                 }
             }
 
             if (toReturn == null) {
-                close();
+                closeCursors();
+            } else {
+                spare = current;
+                current = toReturn;
             }
 
             return toReturn;
         }
 
+        private boolean isPastEnd(Tuple row) {
+            int cmp = endKey.compareRow(row, endKeyPositions);
+            if (!isAscending) {
+                cmp = -cmp;
+            }
+
+            return cmp > 0 || (cmp == 0 && !endInclusive);
+        }
+
         @Override
         public boolean hasNext() {
             return nextItem != null;
@@ -326,21 +678,75 @@ public class Functional {
                 throw new IllegalStateException("next() called on empty iter");
             }
 
-            Map<String, Object> orig = nextItem;
+            RowSlot orig = nextItem;
 
             nextItem = advance();
 
+            long t = clock();
             try {
-                return mapping.map(orig);
+                return invoke(mapping, orig);
             } catch (Exception e) {
                 close();
 
                 throw new RuntimeException(e);
+            } finally {
+                lap(SlowOperationLog.Entry.MAPPING, t);
+
+                if (nextItem == null) {
+                    close();
+                }
             }
         }
 
         @Override
         public void close() {
+            closeCursors();
+            flushMetrics();
+
+            if (current != null) {
+                current.delete();
+                current = null;
+            }
+
+            if (spare != null) {
+                spare.delete();
+                spare = null;
+            }
+
+            nextItem = null;
+        }
+
+        /* once per traversal, however many times close() runs */
+        private void flushMetrics() {
+            if (slow != null) {
+                slow.addRows(rowsScanned, rowsReturned);
+                slowLog.finish(slow);
+                slow = null;
+            }
+
+            if (metrics == null || metricsFlushed) {
+                return;
+            }
+
+            String table = tableDef.getName();
+            metrics.count(table, MetricsRegistry.ROWS_SCANNED, rowsScanned);
+            metrics.count(table, MetricsRegistry.ROWS_RETURNED, rowsReturned);
+            metrics.time(table, MetricsRegistry.TRAVERSAL, System.nanoTime()
+                    - startNanos);
+
+            metricsFlushed = true;
+        }
+
+        /* clock reads only for sampled traversals */
+        private long clock() {
+            return (slow == null) ? 0L : System.nanoTime();
+        }
+
+        private long lap(int phase, long since) {
+            return (slow == null) ? 0L : slow.lap(phase, since);
+        }
+
+        private void closeCursors() {
             if (c1 != null) {
                 c1.close();
                 c1 = null;
@@ -0,0 +1,231 @@
+package com.g414.haildb.tpl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.g414.haildb.ColumnAttribute;
+import com.g414.haildb.ColumnType;
+import com.g414.haildb.Database;
+import com.g414.haildb.DatabaseConfiguration.LogFlushMode;
+import com.g414.haildb.InnoException;
+import com.g414.haildb.InnoException.CommitUnconfirmedException;
+import com.g414.haildb.TableBuilder;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+
+/*
+ * Group commit for durable transactions. While the coordinator is open the
+ * database runs with flush_log_at_trx_commit=2, so commits only write the
+ * log. commit() then blocks until one leader forces the log to disk on
+ * behalf of every waiter in its window; it does so by committing a marker
+ * row with flush_log_at_trx_commit=1, whose fsync covers all earlier LSNs.
+ *
+ * The log flush mode is engine-wide: while a coordinator is open, any
+ * commit that does not go through commit() or awaitFlush() -- a direct
+ * Transaction.commit(), Functional.apply in a caller's transaction, DDL,
+ * another DatabaseTemplate without this coordinator -- is no longer
+ * fsynced and can be lost on a crash until the next group flush. Route
+ * every durable commit through the coordinator, or call awaitFlush()
+ * after it, for as long as the coordinator is open.
+ */
+public class GroupCommitCoordinator {
+    public static final String MARKER_TABLE = "group_commit_marker";
+
+    private final Database database;
+    private final DatabaseTemplate template;
+    private final TableDef markerTable;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final LogFlushMode restoreMode;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private long requested = 0;
+    private long flushed = 0;
+    private boolean flushing = false;
+    private long failedThrough = 0;
+    private RuntimeException failure;
+    private volatile boolean closed = false;
+
+    public GroupCommitCoordinator(Database database, String schemaName,
+            long window, TimeUnit unit, int maxBatch) {
+        this(database, schemaName, window, unit, maxBatch,
+                LogFlushMode.AT_TRX_COMMIT_SYNC);
+    }
+
+    /*
+     * switches the whole engine to AT_TRX_COMMIT_NOSYNC until close(),
+     * which puts restoreMode back; see the class comment
+     */
+    public GroupCommitCoordinator(Database database, String schemaName,
+            long window, TimeUnit unit, int maxBatch, LogFlushMode restoreMode) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+
+        this.database = database;
+        this.template = new DatabaseTemplate(database);
+        this.markerTable = createMarkerTableDef(schemaName);
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatch = maxBatch;
+        this.restoreMode = restoreMode;
+
+        if (!database.tableExists(markerTable)) {
+            database.createTable(markerTable);
+        }
+
+        database.setLogFlushMode(LogFlushMode.AT_TRX_COMMIT_NOSYNC);
+    }
+
+    public static TableDef createMarkerTableDef(String schemaName) {
+        return new TableBuilder(schemaName + "/" + MARKER_TABLE).addColumn(
+                "id", ColumnType.INT, 4, ColumnAttribute.NOT_NULL,
+                ColumnAttribute.UNSIGNED).addColumn("seq", ColumnType.INT, 8,
+                ColumnAttribute.NOT_NULL).addIndex("PRIMARY", "id", 0, true,
+                true).build();
+    }
+
+    /*
+     * commits in memory, then returns once the commit is on disk; if the
+     * wait fails the transaction has still committed, only its durability
+     * is unconfirmed, so it must not be retried as if it had rolled back.
+     * Once closed, the log flush mode is restored, so a plain commit is
+     * already as durable as restoreMode makes it.
+     */
+    public void commit(Transaction txn) {
+        if (closed) {
+            txn.commit();
+
+            return;
+        }
+
+        txn.commit();
+
+        try {
+            awaitFlush();
+        } catch (InnoException e) {
+            throw new CommitUnconfirmedException("transaction committed, "
+                    + "but waiting for its log flush failed: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    public void awaitFlush() {
+        lock.lock();
+        try {
+            long ticket = ++requested;
+            changed.signalAll();
+
+            while (flushed < ticket) {
+                if (failedThrough >= ticket) {
+                    throw new InnoException("group log flush failed", failure);
+                }
+
+                if (flushing) {
+                    waitOn(0);
+                } else {
+                    lead();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* waits out an in-flight flush so it cannot re-enable NOSYNC */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+
+            while (flushing) {
+                changed.awaitUninterruptibly();
+            }
+
+            database.setLogFlushMode(restoreMode);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* called with the lock held; drops it for the flush itself */
+    private void lead() {
+        flushing = true;
+
+        try {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+
+            /* give followers the window to join the batch */
+            while (requested - flushed < maxBatch && remaining > 0) {
+                waitOn(remaining);
+                remaining = deadline - System.nanoTime();
+            }
+
+            long target = requested;
+            RuntimeException error = null;
+
+            lock.unlock();
+            try {
+                flush(target);
+            } catch (RuntimeException e) {
+                error = e;
+            } finally {
+                lock.lock();
+            }
+
+            if (error == null) {
+                flushed = Math.max(flushed, target);
+            } else {
+                failedThrough = Math.max(failedThrough, target);
+                failure = error;
+            }
+        } finally {
+            flushing = false;
+            changed.signalAll();
+        }
+    }
+
+    private void flush(long target) {
+        final Map<String, Object> marker = new LinkedHashMap<String, Object>();
+        marker.put("id", 0);
+        marker.put("seq", target);
+
+        database.setLogFlushMode(LogFlushMode.AT_TRX_COMMIT_SYNC);
+        try {
+            template.inTransaction(TransactionLevel.READ_COMMITTED,
+                    new DatabaseTemplate.TransactionCallback<Void>() {
+                        @Override
+                        public Void inTransaction(Transaction txn) {
+                            template.insertOrUpdate(txn, markerTable, marker);
+
+                            return null;
+                        }
+                    });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InnoException(e);
+        } finally {
+            database.setLogFlushMode(closed ? restoreMode
+                    : LogFlushMode.AT_TRX_COMMIT_NOSYNC);
+        }
+    }
+
+    private void waitOn(long nanos) {
+        try {
+            if (nanos <= 0) {
+                changed.await();
+            } else {
+                changed.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InnoException("interrupted waiting for log flush", e);
+        }
+    }
+}
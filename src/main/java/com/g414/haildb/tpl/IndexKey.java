@@ -0,0 +1,346 @@
+package com.g414.haildb.tpl;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.g414.haildb.ColumnAttribute;
+import com.g414.haildb.ColumnDef;
+import com.g414.haildb.ColumnType;
+import com.g414.haildb.IndexDef;
+import com.g414.haildb.RowCodec;
+import com.g414.haildb.Tuple;
+import com.g414.haildb.TupleStorage;
+
+/*
+ * A (possibly partial) index key compiled once, compared against rows in
+ * the order HailDB's built-in comparison uses: integers numerically,
+ * binaries and *_ANYCHARSET strings as unsigned bytes, CHAR and VARCHAR
+ * as unsigned bytes with the shorter value padded with spaces (0x20),
+ * SQL NULL first.
+ */
+public class IndexKey implements Comparable<IndexKey> {
+    static final int PAD_NONE = -1;
+    static final int PAD_SPACE = 0x20;
+
+    private final IndexDef index;
+    private final Map<String, Object> key;
+    private final KeyPart[] parts;
+
+    public IndexKey(IndexDef index, Map<String, Object> key) {
+        this.index = index;
+        this.key = key;
+
+        List<KeyPart> newParts = new ArrayList<KeyPart>();
+        for (ColumnDef col : index.getColumns()) {
+            /* prefix keys stop at the first column not given */
+            if (!key.containsKey(col.getName())) {
+                break;
+            }
+
+            newParts.add(createPart(col, key.get(col.getName())));
+        }
+
+        this.parts = newParts.toArray(new KeyPart[newParts.size()]);
+    }
+
+    /* a traversal bound must name a non-empty leading prefix of the index */
+    public static IndexKey forBound(IndexDef index, Map<String, Object> key) {
+        IndexKey bound = new IndexKey(index, key);
+        if (!bound.isLeadingPrefix()) {
+            throw new IllegalArgumentException(
+                    "key must give a leading prefix of index "
+                            + index.getName() + ": " + key);
+        }
+
+        return bound;
+    }
+
+    public IndexDef getIndex() {
+        return index;
+    }
+
+    public Map<String, Object> getKey() {
+        return key;
+    }
+
+    public int size() {
+        return parts.length;
+    }
+
+    /*
+     * false when the key gives no index column, or skips one and names a
+     * later one, which the prefix compiled here would silently drop
+     */
+    public boolean isLeadingPrefix() {
+        if (parts.length == 0) {
+            return false;
+        }
+
+        List<ColumnDef> columns = index.getColumns();
+        for (int i = parts.length; i < columns.size(); i++) {
+            if (key.containsKey(columns.get(i).getName())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /* resolves this key's columns against the tuples a cursor will read */
+    public int[] getPositions(RowCodec codec) {
+        int[] positions = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            positions[i] = codec.getPosition(parts[i].name);
+        }
+
+        return positions;
+    }
+
+    /*
+     * compares the row in the tuple against this key over the key's
+     * columns only, so every row matching a prefix key compares equal
+     */
+    public int compareRow(Tuple row, int[] positions) {
+        for (int i = 0; i < parts.length; i++) {
+            int cmp;
+            if (row.isNull(positions[i])) {
+                cmp = parts[i].isNull() ? 0 : -1;
+            } else if (parts[i].isNull()) {
+                cmp = 1;
+            } else {
+                cmp = parts[i].compareRow(row, positions[i]);
+            }
+
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return 0;
+    }
+
+    /* orders keys of the same index the way the index orders rows */
+    @Override
+    public int compareTo(IndexKey other) {
+        int cmp = comparePrefix(other);
+
+        return cmp != 0 ? cmp : parts.length - other.parts.length;
+    }
+
+    /*
+     * compares over the columns both keys give, so a prefix key compares
+     * equal to every longer key that starts with it
+     */
+    public int comparePrefix(IndexKey other) {
+        int n = Math.min(parts.length, other.parts.length);
+        for (int i = 0; i < n; i++) {
+            KeyPart a = parts[i];
+            KeyPart b = other.parts[i];
+
+            int cmp;
+            if (a.isNull()) {
+                cmp = b.isNull() ? 0 : -1;
+            } else if (b.isNull()) {
+                cmp = 1;
+            } else {
+                cmp = a.compareValue(b);
+            }
+
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return 0;
+    }
+
+    private static KeyPart createPart(ColumnDef col, Object value) {
+        if (value instanceof String) {
+            value = TupleStorage.coerceType((String) value, col.getType());
+        }
+
+        switch (col.getType()) {
+        case BINARY:
+        case VARBINARY:
+        case BLOB:
+            return new BytesPart(col, (byte[]) value, PAD_NONE);
+        case CHAR_ANYCHARSET:
+        case VARCHAR_ANYCHARSET:
+            return new BytesPart(col, toStringBytes((String) value), PAD_NONE);
+        case CHAR:
+        case VARCHAR:
+            return new BytesPart(col, toStringBytes((String) value), PAD_SPACE);
+        case INT:
+            return new IntegerPart(col, (Number) value);
+        case DOUBLE:
+        case FLOAT:
+            return new FloatingPart(col, (Number) value);
+        default:
+            throw new IllegalArgumentException("unsupported key type: "
+                    + col.getType());
+        }
+    }
+
+    /* strings are stored NUL-terminated, see TupleStorage.storeString */
+    private static byte[] toStringBytes(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = value.getBytes("UTF-8");
+            byte[] result = new byte[bytes.length + 1];
+            System.arraycopy(bytes, 0, result, 0, bytes.length);
+
+            return result;
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Java doesn't recognize UTF-8?!");
+        }
+    }
+
+    private static abstract class KeyPart {
+        protected final String name;
+
+        public KeyPart(ColumnDef col) {
+            this.name = col.getName();
+        }
+
+        public abstract boolean isNull();
+
+        public abstract int compareRow(Tuple row, int i);
+
+        public abstract int compareValue(KeyPart other);
+    }
+
+    private static class IntegerPart extends KeyPart {
+        private final Number value;
+        private final long longValue;
+        private final boolean unsigned;
+
+        public IntegerPart(ColumnDef col, Number value) {
+            super(col);
+            this.value = value;
+            this.longValue = value == null ? 0 : value.longValue();
+            this.unsigned = col.is(ColumnAttribute.UNSIGNED);
+        }
+
+        public boolean isNull() {
+            return value == null;
+        }
+
+        public int compareRow(Tuple row, int i) {
+            return compareLong(row.getRowCodec().decodeLong(row, i, 8),
+                    longValue, unsigned);
+        }
+
+        public int compareValue(KeyPart other) {
+            return compareLong(longValue, ((IntegerPart) other).longValue,
+                    unsigned);
+        }
+    }
+
+    private static class FloatingPart extends KeyPart {
+        private final Number value;
+        private final boolean isFloat;
+
+        public FloatingPart(ColumnDef col, Number value) {
+            super(col);
+            this.value = value;
+            this.isFloat = col.getType().equals(ColumnType.FLOAT);
+        }
+
+        public boolean isNull() {
+            return value == null;
+        }
+
+        public int compareRow(Tuple row, int i) {
+            if (isFloat) {
+                return Float.compare(row.getRowCodec().decodeFloat(row, i),
+                        value.floatValue());
+            }
+
+            return Double.compare(row.getRowCodec().decodeDouble(row, i), value
+                    .doubleValue());
+        }
+
+        public int compareValue(KeyPart other) {
+            return Double.compare(value.doubleValue(),
+                    ((FloatingPart) other).value.doubleValue());
+        }
+    }
+
+    private static class BytesPart extends KeyPart {
+        private final byte[] value;
+        private final int pad;
+
+        public BytesPart(ColumnDef col, byte[] value, int pad) {
+            super(col);
+            this.value = value;
+            this.pad = pad;
+        }
+
+        public boolean isNull() {
+            return value == null;
+        }
+
+        public int compareRow(Tuple row, int i) {
+            return compareBytes(TupleStorage.loadByteBuffer(row, i), value,
+                    pad);
+        }
+
+        public int compareValue(KeyPart other) {
+            return compareBytes(ByteBuffer.wrap(value),
+                    ((BytesPart) other).value, pad);
+        }
+    }
+
+    static int compareLong(long a, long b, boolean unsigned) {
+        if (unsigned) {
+            a ^= Long.MIN_VALUE;
+            b ^= Long.MIN_VALUE;
+        }
+
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    /*
+     * with a pad byte, the tail of the longer value is compared against
+     * pad repeated, as InnoDB does for CHAR and VARCHAR; without one the
+     * shorter value sorts first
+     */
+    static int compareBytes(ByteBuffer a, byte[] b, int pad) {
+        int alen = a.remaining();
+        int n = Math.min(alen, b.length);
+        int base = a.position();
+
+        for (int j = 0; j < n; j++) {
+            int cmp = (a.get(base + j) & 0xFF) - (b[j] & 0xFF);
+            if (cmp != 0) {
+                return cmp < 0 ? -1 : 1;
+            }
+        }
+
+        if (pad == PAD_NONE) {
+            return alen < b.length ? -1 : (alen == b.length ? 0 : 1);
+        }
+
+        for (int j = n; j < alen; j++) {
+            int cmp = (a.get(base + j) & 0xFF) - pad;
+            if (cmp != 0) {
+                return cmp < 0 ? -1 : 1;
+            }
+        }
+
+        for (int j = n; j < b.length; j++) {
+            int cmp = pad - (b[j] & 0xFF);
+            if (cmp != 0) {
+                return cmp < 0 ? -1 : 1;
+            }
+        }
+
+        return 0;
+    }
+}
@@ -4,6 +4,8 @@ import java.util.Map;
 
 import com.g414.haildb.ColumnDef;
 import com.g414.haildb.IndexDef;
+import com.g414.haildb.RowCodec;
+import com.g414.haildb.Tuple;
 import com.g414.haildb.TupleStorage;
 
 public class KeyHelper {
@@ -21,4 +23,20 @@ public class KeyHelper {
 
         return true;
     }
+
+    public static boolean matchesPrimaryKey(IndexDef primary,
+            Map<String, Object> toFind, Tuple found) {
+        RowCodec codec = found.getRowCodec();
+
+        for (ColumnDef col : primary.getColumns()) {
+            Object seekVal = toFind.get(col.getName());
+            Object foundVal = codec.decode(found, col.getIndex());
+
+            if (!TupleStorage.areEqual(seekVal, foundVal, col.getType())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
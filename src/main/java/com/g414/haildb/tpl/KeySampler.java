@@ -0,0 +1,205 @@
+package com.g414.haildb.tpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.g414.haildb.ColumnDef;
+import com.g414.haildb.IndexDef;
+import com.g414.haildb.RowView;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.DatabaseTemplate.TransactionCallback;
+import com.g414.haildb.tpl.Functional.RowMapping;
+import com.g414.haildb.tpl.Functional.Target;
+
+/*
+ * Estimates the key distribution of an index with a reservoir sample of
+ * its key columns, for picking split keys that cut a scan into ranges
+ * of roughly equal row counts. HailDB cursors cannot skip ahead by
+ * position, so sampling walks the index once reading only key columns
+ * (straight from the index record for secondary indexes); samples are
+ * cached per index until refreshed.
+ */
+public class KeySampler {
+    public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+    private final DatabaseTemplate dbt;
+    private final int sampleSize;
+    private final ConcurrentMap<String, Sample> samples = new ConcurrentHashMap<String, Sample>();
+
+    public KeySampler(DatabaseTemplate dbt) {
+        this(dbt, DEFAULT_SAMPLE_SIZE);
+    }
+
+    public KeySampler(DatabaseTemplate dbt, int sampleSize) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive");
+        }
+
+        this.dbt = dbt;
+        this.sampleSize = sampleSize;
+    }
+
+    /* the cached sample of the index (null: primary), taken if absent */
+    public Sample getSample(TableDef def, String index) throws Exception {
+        Sample sample = samples.get(cacheKey(def, index));
+        if (sample == null) {
+            sample = refresh(def, index);
+        }
+
+        return sample;
+    }
+
+    public List<Map<String, Object>> getSplitKeys(TableDef def, String index,
+            int partitions) throws Exception {
+        return getSample(def, index).getSplitKeys(partitions);
+    }
+
+    public Sample refresh(TableDef def, String index) throws Exception {
+        Sample sample = takeSample(def, index);
+        samples.put(cacheKey(def, index), sample);
+
+        return sample;
+    }
+
+    public void invalidate(TableDef def) {
+        String prefix = def.getName() + "#";
+        for (String key : samples.keySet()) {
+            if (key.startsWith(prefix)) {
+                samples.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        samples.clear();
+    }
+
+    private Sample takeSample(final TableDef def, final String index)
+            throws Exception {
+        final IndexDef indexDef = index == null ? def.getPrimaryIndex() : def
+                .getIndexDef(index);
+
+        final List<String> columns = new ArrayList<String>();
+        for (ColumnDef col : indexDef.getColumns()) {
+            columns.add(col.getName());
+        }
+
+        final Random random = new Random();
+        final List<Map<String, Object>> reservoir = new ArrayList<Map<String, Object>>(
+                sampleSize);
+        final long[] seen = new long[1];
+
+        final RowMapping<Void> sampler = new RowMapping<Void>() {
+            public Void map(RowView row) {
+                long n = seen[0]++;
+
+                /* "algorithm R": row n replaces a slot with p = size / n */
+                if (n < sampleSize) {
+                    reservoir.add(row.toMap(columns));
+                } else {
+                    long slot = (long) (random.nextDouble() * (n + 1));
+                    if (slot < sampleSize) {
+                        reservoir.set((int) slot, row.toMap(columns));
+                    }
+                }
+
+                return null;
+            }
+        };
+
+        dbt.inTransaction(TransactionLevel.READ_COMMITTED,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Functional.foreach(txn, new TraversalSpecBuilder(
+                                new Target(def, index)).withColumns(columns)
+                                .build(), sampler);
+
+                        return null;
+                    }
+                });
+
+        return new Sample(indexDef, seen[0], reservoir);
+    }
+
+    private static String cacheKey(TableDef def, String index) {
+        return def.getName() + "#"
+                + (index == null ? def.getPrimaryIndex().getName() : index);
+    }
+
+    public static class Sample {
+        private final IndexDef index;
+        private final long rowCount;
+        private final List<IndexKey> keys;
+        private final long sampledAt;
+
+        public Sample(IndexDef index, long rowCount,
+                List<Map<String, Object>> sampledKeys) {
+            List<IndexKey> newKeys = new ArrayList<IndexKey>(sampledKeys
+                    .size());
+            for (Map<String, Object> key : sampledKeys) {
+                newKeys.add(new IndexKey(index, key));
+            }
+
+            Collections.sort(newKeys);
+
+            this.index = index;
+            this.rowCount = rowCount;
+            this.keys = Collections.unmodifiableList(newKeys);
+            this.sampledAt = System.currentTimeMillis();
+        }
+
+        public IndexDef getIndex() {
+            return index;
+        }
+
+        /* rows in the index when sampled */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public int size() {
+            return keys.size();
+        }
+
+        public long getSampledAt() {
+            return sampledAt;
+        }
+
+        /*
+         * up to partitions - 1 distinct ascending keys at the sample's
+         * quantiles; fewer when the sample has too few distinct keys
+         */
+        public List<Map<String, Object>> getSplitKeys(int partitions) {
+            if (partitions <= 0) {
+                throw new IllegalArgumentException(
+                        "partitions must be positive");
+            }
+
+            List<Map<String, Object>> splits = new ArrayList<Map<String, Object>>();
+            if (keys.isEmpty()) {
+                return splits;
+            }
+
+            /* a split at the smallest key would only make an empty range */
+            IndexKey previous = keys.get(0);
+
+            for (int i = 1; i < partitions; i++) {
+                int at = (int) ((long) i * keys.size() / partitions);
+                IndexKey key = keys.get(at);
+                if (previous.compareTo(key) < 0) {
+                    splits.add(key.getKey());
+                    previous = key;
+                }
+            }
+
+            return splits;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.g414.haildb.tpl;
+
+/*
+ * Where DatabaseTemplate and Functional traversals report per-table
+ * operation timings and event counts when given one. Implementations
+ * are called on the operation's thread and must be thread-safe and
+ * cheap; StripedMetricsRegistry is the default.
+ */
+public interface MetricsRegistry {
+    /* timers */
+    public static final String LOAD = "load";
+    public static final String LOAD_ALL = "loadAll";
+    public static final String INSERT = "insert";
+    public static final String INSERT_ALL = "insertAll";
+    public static final String UPDATE = "update";
+    public static final String INSERT_OR_UPDATE = "insertOrUpdate";
+    public static final String DELETE = "delete";
+    public static final String TRAVERSAL = "traversal";
+    public static final String CURSOR_OPEN = "cursorOpen";
+
+    /* counters */
+    public static final String LOAD_HIT = "load.hit";
+    public static final String LOAD_MISS = "load.miss";
+    public static final String INSERT_DUPLICATE = "insert.duplicate";
+    public static final String UPDATE_NOT_FOUND = "update.notFound";
+    public static final String DELETE_NOT_FOUND = "delete.notFound";
+    public static final String ROWS_SCANNED = "rows.scanned";
+    public static final String ROWS_RETURNED = "rows.returned";
+
+    public void count(String table, String name, long delta);
+
+    public void time(String table, String operation, long nanos);
+}
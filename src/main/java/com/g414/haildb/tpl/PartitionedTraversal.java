@@ -0,0 +1,173 @@
+package com.g414.haildb.tpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.IndexDef;
+import com.g414.haildb.InnoException;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.DatabaseTemplate.TransactionCallback;
+import com.g414.haildb.tpl.Functional.Combiner;
+import com.g414.haildb.tpl.Functional.Reduction;
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+
+/*
+ * Splits one traversal into adjacent key ranges at the given split keys
+ * and reduces each range on the executor in its own transaction. Split
+ * keys are (prefix) keys of the traversed index, in traversal order;
+ * range i covers [split(i-1), split(i)), the first range starts where
+ * the spec does and the last one ends where the spec does. Split keys
+ * outside the spec's bounds are dropped, so they can come from a
+ * KeySampler over the whole index.
+ *
+ * Ranges reduce concurrently, so each one starts from its own value
+ * from the initial supplier; it should be an identity for the combiner
+ * (0 for a sum, a new empty list for a collect).
+ */
+public class PartitionedTraversal {
+    private final DatabaseTemplate dbt;
+    private final ExecutorService executor;
+
+    public PartitionedTraversal(DatabaseTemplate dbt,
+            ExecutorService executor) {
+        this.dbt = dbt;
+        this.executor = executor;
+    }
+
+    public <T> T reduce(final TransactionLevel level, TraversalSpec spec,
+            List<Map<String, Object>> splitKeys, final Reduction<T> reduction,
+            final Supplier<T> initial, Combiner<T> combiner) throws Exception {
+        List<TraversalSpec> ranges = split(spec, splitKeys);
+        List<Future<T>> results = new ArrayList<Future<T>>(ranges.size());
+
+        try {
+            for (final TraversalSpec range : ranges) {
+                results.add(executor.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        return dbt.inTransaction(level,
+                                new TransactionCallback<T>() {
+                                    public T inTransaction(Transaction txn) {
+                                        return Functional.reduce(txn, range,
+                                                reduction, initial.get());
+                                    }
+                                });
+                    }
+                }));
+            }
+
+            T accum = null;
+            for (int i = 0; i < results.size(); i++) {
+                T result = results.get(i).get();
+                accum = (i == 0) ? result : combiner.combine(accum, result);
+            }
+
+            return accum;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InnoException("interrupted waiting for ranges", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+
+            throw new InnoException("range traversal failed", cause);
+        } finally {
+            /* no-op for finished ranges, stops the rest on failure */
+            for (Future<T> result : results) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    /* splits at keys sampled from the traversed index */
+    public <T> T reduce(TransactionLevel level, TraversalSpec spec,
+            KeySampler sampler, int partitions, Reduction<T> reduction,
+            Supplier<T> initial, Combiner<T> combiner) throws Exception {
+        Target target = spec.getTarget();
+        List<Map<String, Object>> splitKeys = sampler.getSplitKeys(target
+                .getTableDef(), target.getIndexDef(), partitions);
+
+        if (spec.getCursorDirection().equals(CursorDirection.DESC)) {
+            splitKeys = new ArrayList<Map<String, Object>>(splitKeys);
+            Collections.reverse(splitKeys);
+        }
+
+        return reduce(level, spec, splitKeys, reduction, initial, combiner);
+    }
+
+    public static List<TraversalSpec> split(TraversalSpec spec,
+            List<Map<String, Object>> splitKeys) {
+        Target target = spec.getTarget();
+        TableDef tableDef = target.getTableDef();
+        IndexDef index = target.getIndexDef() == null ? tableDef
+                .getPrimaryIndex() : tableDef.getIndexDef(target.getIndexDef());
+        boolean isAscending = spec.getCursorDirection().equals(
+                CursorDirection.ASC);
+
+        int order = isAscending ? 1 : -1;
+        IndexKey first = spec.getFirstKey() == null ? null : new IndexKey(
+                index, spec.getFirstKey());
+        IndexKey end = spec.getEndKey() == null ? null : IndexKey.forBound(
+                index, spec.getEndKey());
+
+        IndexKey previous = null;
+        List<Map<String, Object>> inside = new ArrayList<Map<String, Object>>(
+                splitKeys.size());
+        for (Map<String, Object> splitKey : splitKeys) {
+            IndexKey key = IndexKey.forBound(index, splitKey);
+
+            if (previous != null && order * previous.compareTo(key) >= 0) {
+                throw new IllegalArgumentException("split keys must be "
+                        + "distinct and in traversal order");
+            }
+
+            previous = key;
+
+            /*
+             * a range after the first starts at its split key, not at the
+             * spec's first key, so keys outside the spec's bounds would
+             * scan rows the spec excludes; keys sharing a prefix with a
+             * bound are dropped too, since the bound's search mode decides
+             * which of those rows belong
+             */
+            if ((first == null || order * key.comparePrefix(first) > 0)
+                    && (end == null || order * key.comparePrefix(end) < 0)) {
+                inside.add(splitKey);
+            }
+        }
+
+        SearchMode rangeStart = isAscending ? SearchMode.GE : SearchMode.LE;
+        List<TraversalSpec> ranges = new ArrayList<TraversalSpec>(inside
+                .size() + 1);
+
+        for (int i = 0; i <= inside.size(); i++) {
+            boolean isFirst = i == 0;
+            boolean isLast = i == inside.size();
+
+            ranges.add(new TraversalSpec(target, spec.getCursorDirection(),
+                    isFirst ? spec.getSearchMode() : rangeStart,
+                    isFirst ? spec.getFirstKey() : inside.get(i - 1),
+                    isLast ? spec.getEndKey() : inside.get(i),
+                    isLast ? spec.isEndInclusive() : false, spec
+                            .getPrimaryFilter(), spec.getFilter(), spec
+                            .getColumns(), spec.getMetrics(), spec
+                            .getSlowLog()));
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,231 @@
+package com.g414.haildb.tpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.g414.haildb.Database;
+import com.g414.haildb.InnoException;
+import com.g414.haildb.RowView;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.Functional.Mapping;
+import com.g414.haildb.tpl.Functional.Traversal;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+
+/*
+ * A read-only traversal whose cursor and transaction live on a reader
+ * thread: it walks the index and copies rows into a bounded queue of
+ * batches while the caller maps them, so B-tree reads overlap with the
+ * caller's per-row work. At most about capacity rows are in flight.
+ */
+class PrefetchingTraversal<T> implements Traversal<T> {
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final long POLL_MILLIS = 100;
+
+    private final Mapping<T> mapping;
+    private final BlockingQueue<Batch> queue;
+    private final Thread reader;
+    private volatile boolean closed;
+
+    private List<RowView> batch;
+    private int position;
+    private boolean exhausted;
+
+    public PrefetchingTraversal(final Database db,
+            final TransactionLevel level, final TraversalSpec spec,
+            Mapping<T> mapping, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        final int batchSize = Math.min(MAX_BATCH_SIZE, capacity);
+
+        this.mapping = mapping;
+        this.queue = new ArrayBlockingQueue<Batch>(Math.max(1, capacity
+                / batchSize));
+
+        this.reader = new Thread("haildb-prefetch") {
+            @Override
+            public void run() {
+                read(db, level, spec, batchSize);
+            }
+        };
+
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    private void read(Database db, TransactionLevel level,
+            TraversalSpec spec, int batchSize) {
+        Transaction txn = null;
+        Traversal<RowView> rows = null;
+        Throwable failure = null;
+
+        try {
+            txn = db.beginTransaction(level);
+            rows = Functional.map(txn, spec, Functional.COPY_ROW);
+
+            List<RowView> next = new ArrayList<RowView>(batchSize);
+            while (!closed && rows.hasNext()) {
+                next.add(rows.next());
+
+                if (next.size() == batchSize) {
+                    put(new Batch(next, null));
+                    next = new ArrayList<RowView>(batchSize);
+                }
+            }
+
+            if (!next.isEmpty()) {
+                put(new Batch(next, null));
+            }
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            if (rows != null) {
+                rows.close();
+            }
+
+            if (txn != null) {
+                try {
+                    if (failure == null) {
+                        txn.commit();
+                    } else {
+                        txn.rollback();
+                    }
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+            }
+        }
+
+        try {
+            put(new Batch(null, failure));
+        } catch (InterruptedException e) {
+            /* closed: nobody is waiting for the end marker */
+        }
+    }
+
+    private void put(Batch next) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(next, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (batch != null && position < batch.size()) {
+            return true;
+        }
+
+        if (exhausted) {
+            return false;
+        }
+
+        Batch next;
+        try {
+            next = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+
+            throw new InnoException("interrupted waiting for rows", e);
+        }
+
+        if (next.rows == null) {
+            exhausted = true;
+            batch = null;
+
+            if (next.failure != null) {
+                close();
+
+                if (next.failure instanceof RuntimeException) {
+                    throw (RuntimeException) next.failure;
+                }
+
+                throw new RuntimeException(next.failure);
+            }
+
+            return false;
+        }
+
+        batch = next.rows;
+        position = 0;
+
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        RowView row = batch.get(position);
+        batch.set(position++, null);
+
+        try {
+            return Functional.invoke(mapping, row);
+        } catch (RuntimeException e) {
+            close();
+
+            throw e;
+        }
+    }
+
+    @Override
+    public void traverseAll() {
+        try {
+            while (hasNext()) {
+                next();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /* stops the reader and waits for it to release cursor and transaction */
+    @Override
+    public void close() {
+        closed = true;
+        exhausted = true;
+        batch = null;
+
+        queue.clear();
+
+        boolean interrupted = false;
+        while (reader.isAlive()) {
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static class Batch {
+        private final List<RowView> rows;
+        private final Throwable failure;
+
+        public Batch(List<RowView> rows, Throwable failure) {
+            this.rows = rows;
+            this.failure = failure;
+        }
+    }
+}
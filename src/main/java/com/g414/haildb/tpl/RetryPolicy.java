@@ -0,0 +1,88 @@
+package com.g414.haildb.tpl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.g414.haildb.InnoException;
+import com.g414.haildb.InnoException.CommitUnconfirmedException;
+
+/*
+ * How DatabaseTemplate.inTransaction retries deadlocks and lock wait
+ * timeouts: up to maxAttempts runs in total, sleeping a random ("full
+ * jitter") delay between 0 and min(maxDelay, baseDelay * 2^retry) in
+ * between so contending writers spread out instead of colliding again.
+ */
+public class RetryPolicy {
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0,
+            TimeUnit.MILLISECONDS);
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final Random random = new Random();
+
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay,
+            TimeUnit unit) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+
+        if (baseDelay < 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException(
+                    "delays must satisfy 0 <= baseDelay <= maxDelay");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /*
+     * true if the failure, or anything in its cause chain, is retryable;
+     * the walk stops at a commit that already happened
+     */
+    public boolean isRetryable(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof CommitUnconfirmedException) {
+                return false;
+            }
+
+            if (t instanceof InnoException && ((InnoException) t).isRetryable()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean shouldRetry(int attempt, Throwable failure) {
+        return attempt < maxAttempts && isRetryable(failure);
+    }
+
+    /* the delay to sleep after the given (1-based) failed attempt */
+    public long getBackoffNanos(int attempt) {
+        if (baseDelayNanos == 0) {
+            return 0;
+        }
+
+        int shift = Math.min(attempt - 1, 62);
+        long ceiling = baseDelayNanos << shift;
+        if (ceiling <= 0 || (ceiling >> shift) != baseDelayNanos
+                || ceiling > maxDelayNanos) {
+            ceiling = maxDelayNanos;
+        }
+
+        return (long) (random.nextDouble() * ceiling);
+    }
+
+    public void backoff(int attempt) throws InterruptedException {
+        long nanos = getBackoffNanos(attempt);
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.g414.haildb.tpl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.g414.haildb.ColumnDef;
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.IndexDef;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+
+/*
+ * Reports DatabaseTemplate operations and traversals that take longer
+ * than a threshold. One in sampleEvery operations is timed in detail
+ * (cursor, decode, callback and lock wait time); the rest run untimed,
+ * so the per-row clock reads are bounded by the sampling rate.
+ */
+public class SlowOperationLog {
+    public interface Sink {
+        public void log(Entry entry);
+    }
+
+    /* java.util.logging, at WARNING, under this class's name */
+    public static class LoggingSink implements Sink {
+        private final Logger logger;
+        private final Level level;
+
+        public LoggingSink() {
+            this(Logger.getLogger(SlowOperationLog.class.getName()),
+                    Level.WARNING);
+        }
+
+        public LoggingSink(Logger logger, Level level) {
+            this.logger = logger;
+            this.level = level;
+        }
+
+        @Override
+        public void log(Entry entry) {
+            if (logger.isLoggable(level)) {
+                logger.log(level, entry.toString());
+            }
+        }
+    }
+
+    private final long thresholdNanos;
+    private final int sampleEvery;
+    private final Sink sink;
+
+    public SlowOperationLog(long threshold, TimeUnit unit) {
+        this(threshold, unit, 1, new LoggingSink());
+    }
+
+    public SlowOperationLog(long threshold, TimeUnit unit, int sampleEvery,
+            Sink sink) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must be >= 0");
+        }
+
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be positive");
+        }
+
+        this.thresholdNanos = unit.toNanos(threshold);
+        this.sampleEvery = sampleEvery;
+        this.sink = sink;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    /* null when this operation is not sampled */
+    public Entry start(String operation, TableDef def,
+            Map<String, Object> data) {
+        if (!sample()) {
+            return null;
+        }
+
+        IndexDef primary = def.getPrimaryIndex();
+
+        return new Entry(operation, def.getName(), primary.getName(), null,
+                null, data == null ? null : primaryKey(primary, data), null,
+                false);
+    }
+
+    /* null when this traversal is not sampled */
+    public Entry start(TraversalSpec spec) {
+        if (!sample()) {
+            return null;
+        }
+
+        TableDef def = spec.getTarget().getTableDef();
+        String index = spec.getTarget().getIndexDef();
+
+        return new Entry(MetricsRegistry.TRAVERSAL, def.getName(),
+                index == null ? def.getPrimaryIndex().getName() : index, spec
+                        .getCursorDirection(), spec.getSearchMode(), spec
+                        .getFirstKey(), spec.getEndKey(), spec
+                        .isEndInclusive());
+    }
+
+    public void finish(Entry entry) {
+        entry.stop();
+
+        if (entry.totalNanos >= thresholdNanos) {
+            sink.log(entry);
+        }
+    }
+
+    private boolean sample() {
+        return sampleEvery == 1
+                || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+    }
+
+    private static Map<String, Object> primaryKey(IndexDef primary,
+            Map<String, Object> data) {
+        List<ColumnDef> columns = primary.getColumns();
+        Map<String, Object> key = new LinkedHashMap<String, Object>(columns
+                .size());
+
+        for (ColumnDef col : columns) {
+            key.put(col.getName(), data.get(col.getName()));
+        }
+
+        return Collections.unmodifiableMap(key);
+    }
+
+    /*
+     * One timed operation. For traversals, "other" is time the caller
+     * spent between next() calls; for template operations it is cursor
+     * and tuple work, which is not timed call by call there.
+     */
+    public static class Entry {
+        /* where the time went */
+        static final int CURSOR = 0;
+        static final int DECODE = 1;
+        static final int FILTER = 2;
+        static final int MAPPING = 3;
+        static final int LOCK_WAIT = 4;
+
+        private final String operation;
+        private final String table;
+        private final String index;
+        private final CursorDirection direction;
+        private final SearchMode searchMode;
+        private final Map<String, Object> firstKey;
+        private final Map<String, Object> endKey;
+        private final boolean endInclusive;
+        private final String thread;
+        private final long startNanos;
+        private final long[] phaseNanos = new long[5];
+
+        private long totalNanos;
+        private long rowsExamined;
+        private long rowsReturned;
+
+        Entry(String operation, String table, String index,
+                CursorDirection direction, SearchMode searchMode,
+                Map<String, Object> firstKey, Map<String, Object> endKey,
+                boolean endInclusive) {
+            this.operation = operation;
+            this.table = table;
+            this.index = index;
+            this.direction = direction;
+            this.searchMode = searchMode;
+            this.firstKey = firstKey;
+            this.endKey = endKey;
+            this.endInclusive = endInclusive;
+            this.thread = Thread.currentThread().getName();
+            this.startNanos = System.nanoTime();
+        }
+
+        void stop() {
+            if (totalNanos == 0L) {
+                totalNanos = Math.max(1L, System.nanoTime() - startNanos);
+            }
+        }
+
+        void add(int phase, long nanos) {
+            phaseNanos[phase] += nanos;
+        }
+
+        /* charges the time since the last lap to phase */
+        long lap(int phase, long since) {
+            long now = System.nanoTime();
+            phaseNanos[phase] += now - since;
+
+            return now;
+        }
+
+        void addRows(long examined, long returned) {
+            rowsExamined += examined;
+            rowsReturned += returned;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getIndex() {
+            return index;
+        }
+
+        public CursorDirection getDirection() {
+            return direction;
+        }
+
+        public SearchMode getSearchMode() {
+            return searchMode;
+        }
+
+        public Map<String, Object> getFirstKey() {
+            return firstKey;
+        }
+
+        public Map<String, Object> getEndKey() {
+            return endKey;
+        }
+
+        public boolean isEndInclusive() {
+            return endInclusive;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getCursorNanos() {
+            return phaseNanos[CURSOR];
+        }
+
+        public long getDecodeNanos() {
+            return phaseNanos[DECODE];
+        }
+
+        public long getFilterNanos() {
+            return phaseNanos[FILTER];
+        }
+
+        public long getMappingNanos() {
+            return phaseNanos[MAPPING];
+        }
+
+        public long getLockWaitNanos() {
+            return phaseNanos[LOCK_WAIT];
+        }
+
+        public long getOtherNanos() {
+            long other = totalNanos;
+            for (long nanos : phaseNanos) {
+                other -= nanos;
+            }
+
+            return Math.max(0L, other);
+        }
+
+        public long getRowsExamined() {
+            return rowsExamined;
+        }
+
+        public long getRowsReturned() {
+            return rowsReturned;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("SlowOperation[");
+            sb.append(operation).append(" table=").append(table);
+            sb.append(", index=").append(index);
+
+            if (direction != null) {
+                sb.append(", direction=").append(direction);
+                sb.append(", searchMode=").append(searchMode);
+            }
+
+            if (firstKey != null) {
+                sb.append(", firstKey=").append(firstKey);
+            }
+
+            if (endKey != null) {
+                sb.append(", endKey=").append(endKey);
+                sb.append(endInclusive ? " (inclusive)" : " (exclusive)");
+            }
+
+            sb.append(", rowsExamined=").append(rowsExamined);
+            sb.append(", rowsReturned=").append(rowsReturned);
+            sb.append(", total=").append(micros(totalNanos));
+            sb.append("us, cursor=").append(micros(getCursorNanos()));
+            sb.append("us, decode=").append(micros(getDecodeNanos()));
+            sb.append("us, filter=").append(micros(getFilterNanos()));
+            sb.append("us, mapping=").append(micros(getMappingNanos()));
+            sb.append("us, lockWait=").append(micros(getLockWaitNanos()));
+            sb.append("us, other=").append(micros(getOtherNanos()));
+            sb.append("us, thread=").append(thread).append("]");
+
+            return sb.toString();
+        }
+
+        private static long micros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.g414.haildb.tpl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lock-free MetricsRegistry: every counter and timer is a set of
+ * LongAdders, which stripe contended updates across cells instead of
+ * retrying one CAS, so concurrent transactions do not serialize on it.
+ */
+public class StripedMetricsRegistry implements MetricsRegistry {
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counters = new ConcurrentHashMap<String, ConcurrentMap<String, LongAdder>>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<String, ConcurrentMap<String, Timer>>();
+
+    @Override
+    public void count(String table, String name, long delta) {
+        ConcurrentMap<String, LongAdder> forTable = forTable(counters, table);
+
+        LongAdder counter = forTable.get(name);
+        if (counter == null) {
+            counter = forTable.computeIfAbsent(name, k -> new LongAdder());
+        }
+
+        counter.add(delta);
+    }
+
+    @Override
+    public void time(String table, String operation, long nanos) {
+        ConcurrentMap<String, Timer> forTable = forTable(timers, table);
+
+        Timer timer = forTable.get(operation);
+        if (timer == null) {
+            timer = forTable.computeIfAbsent(operation, k -> new Timer());
+        }
+
+        timer.record(nanos);
+    }
+
+    public Set<String> getTables() {
+        Set<String> tables = new TreeSet<String>(counters.keySet());
+        tables.addAll(timers.keySet());
+
+        return Collections.unmodifiableSet(tables);
+    }
+
+    public long getCount(String table, String name) {
+        Map<String, LongAdder> forTable = counters.get(table);
+        LongAdder counter = forTable == null ? null : forTable.get(name);
+
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public Map<String, Long> getCounters(String table) {
+        Map<String, Long> result = new TreeMap<String, Long>();
+
+        Map<String, LongAdder> forTable = counters.get(table);
+        if (forTable != null) {
+            for (Map.Entry<String, LongAdder> e : forTable.entrySet()) {
+                result.put(e.getKey(), e.getValue().sum());
+            }
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    public Map<String, TimerStats> getTimers(String table) {
+        Map<String, TimerStats> result = new TreeMap<String, TimerStats>();
+
+        Map<String, Timer> forTable = timers.get(table);
+        if (forTable != null) {
+            for (Map.Entry<String, Timer> e : forTable.entrySet()) {
+                result.put(e.getKey(), e.getValue().snapshot());
+            }
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /*
+     * rows traversals returned per row they read from the table, or NaN
+     * before any were read; low values point at scans that want an index
+     * or tighter bounds
+     */
+    public double getSelectivity(String table) {
+        long scanned = getCount(table, ROWS_SCANNED);
+        if (scanned == 0) {
+            return Double.NaN;
+        }
+
+        return (double) getCount(table, ROWS_RETURNED) / scanned;
+    }
+
+    public void reset() {
+        counters.clear();
+        timers.clear();
+    }
+
+    private static <V> ConcurrentMap<String, V> forTable(
+            ConcurrentMap<String, ConcurrentMap<String, V>> byTable,
+            String table) {
+        ConcurrentMap<String, V> forTable = byTable.get(table);
+        if (forTable == null) {
+            forTable = byTable.computeIfAbsent(table,
+                    k -> new ConcurrentHashMap<String, V>());
+        }
+
+        return forTable;
+    }
+
+    private static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(
+                Math::max, 0);
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public TimerStats snapshot() {
+            return new TimerStats(count.sum(), totalNanos.sum(), maxNanos
+                    .get());
+        }
+    }
+
+    public static class TimerStats {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        public TimerStats(long count, long totalNanos, long maxNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "TimerStats[count=" + count + ", mean=" + getMeanNanos()
+                    + "ns, max=" + maxNanos + "ns]";
+        }
+    }
+}
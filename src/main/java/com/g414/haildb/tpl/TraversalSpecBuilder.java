@@ -0,0 +1,126 @@
+package com.g414.haildb.tpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.IndexDef;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.tpl.Functional.Filter;
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+
+public class TraversalSpecBuilder {
+    private final Target target;
+    private CursorDirection cursorDirection = CursorDirection.ASC;
+    private SearchMode searchMode = SearchMode.GE;
+    private Boolean startInclusive;
+    private Map<String, Object> firstKey;
+    private Map<String, Object> endKey;
+    private boolean endInclusive;
+    private Filter primaryFilter;
+    private Filter filter;
+    private List<String> columns;
+    private MetricsRegistry metrics;
+    private SlowOperationLog slowLog;
+
+    public TraversalSpecBuilder(Target target) {
+        this.target = target;
+    }
+
+    public TraversalSpecBuilder withDirection(CursorDirection cursorDirection) {
+        this.cursorDirection = cursorDirection;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withFirstKey(Map<String, Object> firstKey) {
+        this.firstKey = firstKey;
+
+        return this;
+    }
+
+    /* overrides withSearchMode with the mode matching the direction */
+    public TraversalSpecBuilder withStartKey(Map<String, Object> startKey,
+            boolean inclusive) {
+        this.firstKey = startKey;
+        this.startInclusive = inclusive;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withEndKey(Map<String, Object> endKey,
+            boolean inclusive) {
+        if (endKey != null) {
+            TableDef tableDef = target.getTableDef();
+            IndexDef index = target.getIndexDef() == null ? tableDef
+                    .getPrimaryIndex() : tableDef.getIndexDef(target
+                    .getIndexDef());
+
+            IndexKey.forBound(index, endKey);
+        }
+
+        this.endKey = endKey;
+        this.endInclusive = inclusive;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withPrimaryFilter(Filter primaryFilter) {
+        this.primaryFilter = primaryFilter;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withFilter(Filter filter) {
+        this.filter = filter;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withColumns(String... columns) {
+        return withColumns(Arrays.asList(columns));
+    }
+
+    public TraversalSpecBuilder withColumns(List<String> columns) {
+        this.columns = new ArrayList<String>(columns);
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+
+        return this;
+    }
+
+    public TraversalSpecBuilder withSlowLog(SlowOperationLog slowLog) {
+        this.slowLog = slowLog;
+
+        return this;
+    }
+
+    public TraversalSpec build() {
+        SearchMode mode = searchMode;
+        if (startInclusive != null) {
+            if (cursorDirection.equals(CursorDirection.ASC)) {
+                mode = startInclusive ? SearchMode.GE : SearchMode.G;
+            } else {
+                mode = startInclusive ? SearchMode.LE : SearchMode.L;
+            }
+        }
+
+        return new TraversalSpec(target, cursorDirection, mode,
+                firstKey, endKey, endInclusive, primaryFilter, filter, columns,
+                metrics, slowLog);
+    }
+}
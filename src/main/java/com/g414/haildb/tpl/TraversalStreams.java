@@ -0,0 +1,328 @@
+package com.g414.haildb.tpl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.g414.haildb.ColumnDef;
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Database;
+import com.g414.haildb.IndexDef;
+import com.g414.haildb.RowView;
+import com.g414.haildb.TableDef;
+import com.g414.haildb.Transaction;
+import com.g414.haildb.Transaction.TransactionLevel;
+import com.g414.haildb.tpl.Functional.Mapping;
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.Functional.Traversal;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+
+/*
+ * java.util.stream views of traversals. The cursor is opened by the
+ * first element pulled and moves only as elements are pulled, so
+ * short-circuiting operations (limit, findFirst, anyMatch) stop it
+ * where they stop; it is released when the traversal runs out or when
+ * the stream is closed, so use try-with-resources on streams that may
+ * not be consumed to the end.
+ *
+ * RowView streams copy each row out of the cursor (respecting the
+ * spec's columns) so elements stay valid downstream; Mapping streams
+ * see the live row and must copy whatever they keep.
+ */
+public class TraversalStreams {
+    private TraversalStreams() {
+    }
+
+    public static Stream<RowView> stream(Transaction txn, TraversalSpec spec) {
+        return open(new TraversalSpliterator<RowView>(txn, spec,
+                Functional.COPY_ROW, rowCharacteristics(spec), rowOrder(spec)));
+    }
+
+    public static <T> Stream<T> stream(Transaction txn, TraversalSpec spec,
+            Mapping<T> mapping) {
+        return open(new TraversalSpliterator<T>(txn, spec, mapping,
+                Spliterator.ORDERED, null));
+    }
+
+    /*
+     * a parallel stream over the ranges between the split keys, each
+     * range read in its own transaction (see PartitionedTraversal);
+     * trySplit hands out whole ranges, so parallelism is bounded by the
+     * number of split keys plus one
+     */
+    public static Stream<RowView> parallelStream(Database db,
+            TransactionLevel level, TraversalSpec spec,
+            List<Map<String, Object>> splitKeys) {
+        return open(new RangeSpliterator<RowView>(db, level,
+                PartitionedTraversal.split(spec, splitKeys),
+                Functional.COPY_ROW, rowCharacteristics(spec), rowOrder(spec)))
+                .parallel();
+    }
+
+    public static <T> Stream<T> parallelStream(Database db,
+            TransactionLevel level, TraversalSpec spec,
+            List<Map<String, Object>> splitKeys, Mapping<T> mapping) {
+        return open(new RangeSpliterator<T>(db, level, PartitionedTraversal
+                .split(spec, splitKeys), mapping, Spliterator.ORDERED, null))
+                .parallel();
+    }
+
+    private static <T> Stream<T> open(CloseableSpliterator<T> spliterator) {
+        return StreamSupport.stream(spliterator, false).onClose(
+                spliterator::close);
+    }
+
+    /* rows come out in index order only if they carry the index key */
+    private static int rowCharacteristics(TraversalSpec spec) {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+
+        List<String> columns = spec.getColumns();
+        if (columns == null || columns.containsAll(keyColumns(spec))) {
+            characteristics |= Spliterator.SORTED;
+        }
+
+        return characteristics;
+    }
+
+    private static Comparator<RowView> rowOrder(TraversalSpec spec) {
+        final IndexDef index = getIndex(spec.getTarget());
+        Comparator<RowView> order = (a, b) -> new IndexKey(index, a.toMap())
+                .compareTo(new IndexKey(index, b.toMap()));
+
+        return spec.getCursorDirection().equals(CursorDirection.ASC) ? order
+                : order.reversed();
+    }
+
+    private static List<String> keyColumns(TraversalSpec spec) {
+        List<String> names = new ArrayList<String>();
+        for (ColumnDef col : getIndex(spec.getTarget()).getColumns()) {
+            names.add(col.getName());
+        }
+
+        return names;
+    }
+
+    private static IndexDef getIndex(Target target) {
+        TableDef def = target.getTableDef();
+
+        return target.getIndexDef() == null ? def.getPrimaryIndex() : def
+                .getIndexDef(target.getIndexDef());
+    }
+
+    private static abstract class CloseableSpliterator<T> implements
+            Spliterator<T> {
+        private final int characteristics;
+        private final Comparator<? super T> order;
+
+        public CloseableSpliterator(int characteristics,
+                Comparator<? super T> order) {
+            this.characteristics = characteristics;
+            this.order = order;
+        }
+
+        public abstract void close();
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if ((characteristics & Spliterator.SORTED) == 0) {
+                throw new IllegalStateException();
+            }
+
+            return order;
+        }
+    }
+
+    /* one traversal in the caller's transaction; does not split */
+    private static class TraversalSpliterator<T> extends
+            CloseableSpliterator<T> {
+        private final Transaction txn;
+        private final TraversalSpec spec;
+        private final Mapping<T> mapping;
+        private Traversal<T> traversal;
+        private boolean done;
+
+        public TraversalSpliterator(Transaction txn, TraversalSpec spec,
+                Mapping<T> mapping, int characteristics,
+                Comparator<? super T> order) {
+            super(characteristics, order);
+            this.txn = txn;
+            this.spec = spec;
+            this.mapping = mapping;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (done) {
+                return false;
+            }
+
+            if (traversal == null) {
+                traversal = Functional.map(txn, spec, mapping);
+            }
+
+            if (!traversal.hasNext()) {
+                close();
+
+                return false;
+            }
+
+            action.accept(traversal.next());
+
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            done = true;
+
+            if (traversal != null) {
+                traversal.close();
+                traversal = null;
+            }
+        }
+    }
+
+    /*
+     * ranges [lo, hi) of a partitioned traversal; the ranges still to
+     * run are shared with every spliterator split off, so closing any
+     * one of them (the one the stream holds) releases them all
+     */
+    private static class RangeSpliterator<T> extends CloseableSpliterator<T> {
+        private final Database db;
+        private final TransactionLevel level;
+        private final List<TraversalSpec> ranges;
+        private final Mapping<T> mapping;
+        private final Queue<RangeSpliterator<T>> family;
+        private int lo;
+        private int hi;
+        private Transaction txn;
+        private Traversal<T> traversal;
+        private boolean done;
+
+        public RangeSpliterator(Database db, TransactionLevel level,
+                List<TraversalSpec> ranges, Mapping<T> mapping,
+                int characteristics, Comparator<? super T> order) {
+            this(db, level, ranges, mapping, characteristics, order,
+                    new ConcurrentLinkedQueue<RangeSpliterator<T>>(), 0,
+                    ranges.size());
+        }
+
+        private RangeSpliterator(Database db, TransactionLevel level,
+                List<TraversalSpec> ranges, Mapping<T> mapping,
+                int characteristics, Comparator<? super T> order,
+                Queue<RangeSpliterator<T>> family, int lo, int hi) {
+            super(characteristics, order);
+            this.db = db;
+            this.level = level;
+            this.ranges = ranges;
+            this.mapping = mapping;
+            this.family = family;
+            this.lo = lo;
+            this.hi = hi;
+
+            family.add(this);
+        }
+
+        @Override
+        public synchronized boolean tryAdvance(Consumer<? super T> action) {
+            while (!done) {
+                if (traversal == null) {
+                    if (lo == hi) {
+                        done = true;
+                        break;
+                    }
+
+                    txn = db.beginTransaction(level);
+                    traversal = Functional.map(txn, ranges.get(lo++), mapping);
+                }
+
+                if (traversal.hasNext()) {
+                    action.accept(traversal.next());
+
+                    return true;
+                }
+
+                traversal.close();
+                traversal = null;
+
+                txn.commit();
+                txn = null;
+            }
+
+            return false;
+        }
+
+        @Override
+        public synchronized Spliterator<T> trySplit() {
+            /*
+             * only ranges not yet started can be handed out, and ORDERED
+             * needs the split-off part to be a prefix of this one
+             */
+            if (done || traversal != null || hi - lo < 2) {
+                return null;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            RangeSpliterator<T> prefix = new RangeSpliterator<T>(db, level,
+                    ranges, mapping, characteristics(), order(), family, lo,
+                    mid);
+            lo = mid;
+
+            return prefix;
+        }
+
+        private Comparator<? super T> order() {
+            return ((characteristics() & Spliterator.SORTED) == 0) ? null
+                    : getComparator();
+        }
+
+        @Override
+        public long estimateSize() {
+            return (hi == lo && traversal == null) ? 0 : Long.MAX_VALUE;
+        }
+
+        @Override
+        public void close() {
+            RangeSpliterator<T> member;
+            while ((member = family.poll()) != null) {
+                member.release();
+            }
+        }
+
+        private synchronized void release() {
+            done = true;
+
+            if (traversal != null) {
+                traversal.close();
+                traversal = null;
+            }
+
+            if (txn != null) {
+                txn.rollback();
+                txn = null;
+            }
+        }
+    }
+}
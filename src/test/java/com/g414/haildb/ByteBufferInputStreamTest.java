@@ -0,0 +1,48 @@
+package com.g414.haildb;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+@Test
+public class ByteBufferInputStreamTest {
+    public void testReads() throws Exception {
+        ByteBuffer src = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, (byte) 0xFF });
+        ByteBufferInputStream in = new ByteBufferInputStream(src);
+
+        Assert.assertEquals(5, in.available());
+        Assert.assertEquals(1, in.read());
+        Assert.assertEquals(1, in.skip(1));
+
+        byte[] b = new byte[2];
+        Assert.assertEquals(2, in.read(b, 0, 2));
+        Assert.assertEquals(3, b[0]);
+        Assert.assertEquals(4, b[1]);
+
+        ByteBuffer dst = ByteBuffer.allocate(4);
+        Assert.assertEquals(1, in.read(dst));
+        Assert.assertEquals((byte) 0xFF, dst.get(0));
+        Assert.assertEquals(-1, in.read());
+        Assert.assertEquals(-1, in.read(dst));
+
+        /* the source buffer's position is left untouched */
+        Assert.assertEquals(0, src.position());
+    }
+
+    public void testClosed() throws Exception {
+        ByteBufferInputStream in = new ByteBufferInputStream(ByteBuffer
+                .allocate(1));
+        in.close();
+
+        Assert.assertFalse(in.isOpen());
+
+        try {
+            in.read();
+            Assert.fail("expected exception!");
+        } catch (ClosedChannelException expected) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.g414.haildb;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.DatabaseStatus.Sample;
+import com.g414.haildb.DatabaseStatusMonitor.Interval;
+
+@Test
+public class DatabaseStatusTest {
+    public void testDeltasAndRates() {
+        Sample first = sample(0, 1000, 100, 10, 5);
+        Sample second = sample(TimeUnit.SECONDS.toNanos(2), 3000, 150, 30, 2);
+
+        Map<String, Long> deltas = second.deltas(first);
+        Assert.assertEquals(Long.valueOf(2000), deltas.get(
+                "buffer_pool_read_reqs"));
+        Assert.assertEquals(Long.valueOf(50), deltas.get("buffer_pool_reads"));
+        Assert.assertEquals(Long.valueOf(20), deltas.get("lock_row_waits"));
+
+        /* gauges have no delta */
+        Assert.assertFalse(deltas.containsKey("lock_row_waiting"));
+
+        Map<String, Double> rates = second.rates(first);
+        Assert.assertEquals(1000.0, rates.get("buffer_pool_read_reqs"), 1e-9);
+        Assert.assertEquals(10.0, rates.get("lock_row_waits"), 1e-9);
+
+        Assert.assertEquals(0.975, second.bufferPoolHitRate(first), 1e-9);
+        Assert.assertTrue(Double.isNaN(first.bufferPoolHitRate(first)));
+
+        Interval interval = new Interval(first, second);
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(2), interval.getNanos());
+        Assert.assertEquals(deltas, interval.getDeltas());
+        Assert.assertEquals(0.975, interval.getBufferPoolHitRate(), 1e-9);
+    }
+
+    public void testVariables() {
+        Assert.assertTrue(DatabaseStatus.VARIABLES
+                .containsAll(DatabaseStatus.GAUGES));
+        Assert.assertTrue(DatabaseStatus.isCounter("log_write_reqs"));
+        Assert.assertFalse(DatabaseStatus.isCounter("page_size"));
+    }
+
+    private static Sample sample(long nanoTime, long readReqs, long reads,
+            long lockWaits, long lockWaiting) {
+        Map<String, Long> values = new LinkedHashMap<String, Long>();
+        values.put("buffer_pool_read_reqs", readReqs);
+        values.put("buffer_pool_reads", reads);
+        values.put("lock_row_waits", lockWaits);
+        values.put("lock_row_waiting", lockWaiting);
+
+        return new Sample(nanoTime, values);
+    }
+}
@@ -1,10 +1,23 @@
 package com.g414.haildb;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import junit.framework.Assert;
 
@@ -13,19 +26,36 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Cursor.LockMode;
 import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.DatabaseStatusMonitor.Interval;
+import com.g414.haildb.InnoException.DuplicateKeyException;
 import com.g414.haildb.Transaction.TransactionLevel;
 import com.g414.haildb.tpl.DatabaseTemplate;
+import com.g414.haildb.tpl.DatabaseTemplate.RowBinder;
+import com.g414.haildb.tpl.DatabaseTemplate.RowErrorHandler;
 import com.g414.haildb.tpl.DatabaseTemplate.TransactionCallback;
 import com.g414.haildb.tpl.Functional;
+import com.g414.haildb.tpl.Functional.Combiner;
 import com.g414.haildb.tpl.Functional.Filter;
 import com.g414.haildb.tpl.Functional.Mapping;
 import com.g414.haildb.tpl.Functional.Mutation;
 import com.g414.haildb.tpl.Functional.MutationType;
 import com.g414.haildb.tpl.Functional.Reduction;
+import com.g414.haildb.tpl.Functional.RowFilter;
+import com.g414.haildb.tpl.Functional.RowMapping;
+import com.g414.haildb.tpl.Functional.RowReduction;
 import com.g414.haildb.tpl.Functional.Target;
 import com.g414.haildb.tpl.Functional.Traversal;
 import com.g414.haildb.tpl.Functional.TraversalSpec;
+import com.g414.haildb.tpl.GroupCommitCoordinator;
+import com.g414.haildb.tpl.KeySampler;
+import com.g414.haildb.tpl.MetricsRegistry;
+import com.g414.haildb.tpl.PartitionedTraversal;
+import com.g414.haildb.tpl.SlowOperationLog;
+import com.g414.haildb.tpl.StripedMetricsRegistry;
+import com.g414.haildb.tpl.TraversalSpecBuilder;
+import com.g414.haildb.tpl.TraversalStreams;
 
 @Test
 public class FunctionalTest {
@@ -53,6 +83,138 @@ public class FunctionalTest {
         }
     }
 
+    public void testTableIds() throws Exception {
+        final TableDef def = TableDefinitions.TABLE_3;
+        Long tableId = def.getTableId();
+        Assert.assertNotNull(tableId);
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    @Override
+                    public Void inTransaction(Transaction txn) {
+                        Cursor c = txn.openTable(def);
+                        c.openIndex("bc").close();
+                        c.close();
+
+                        return null;
+                    }
+                });
+
+        Assert.assertNotNull(def.getIndexDef("bc").getIndexId());
+
+        Long truncatedId = db.truncateTable(def);
+        Assert.assertEquals(truncatedId, def.getTableId());
+        Assert.assertFalse(tableId.equals(truncatedId));
+        Assert.assertNull(def.getIndexDef("bc").getIndexId());
+
+        db.dropTable(def);
+        Assert.assertNull(def.getTableId());
+        Assert.assertFalse(db.tableExists(def));
+        db.createTable(def);
+    }
+
+    public void testGroupCommitAfterClose() throws Exception {
+        GroupCommitCoordinator gc = new GroupCommitCoordinator(db,
+                TableDefinitions.SCHEMA_NAME, 2, TimeUnit.MILLISECONDS, 8);
+        final DatabaseTemplate gdt = new DatabaseTemplate(db, gc);
+
+        try {
+            gc.close();
+
+            /* commits directly instead of leaking an open transaction */
+            gdt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                    new TransactionCallback<Void>() {
+                        public Void inTransaction(Transaction txn) {
+                            gdt.insert(txn, TableDefinitions.TABLE_3, mapOf(
+                                    "a", 1, "b", 0, "c", 0, "d", 1, "e", "t",
+                                    "f", null));
+
+                            return null;
+                        }
+                    });
+        } finally {
+            db.dropTable(GroupCommitCoordinator
+                    .createMarkerTableDef(TableDefinitions.SCHEMA_NAME));
+        }
+
+        Map<String, Object> row = dt.inTransaction(
+                TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Map<String, Object>>() {
+                    public Map<String, Object> inTransaction(Transaction txn) {
+                        return dt.load(txn, TableDefinitions.TABLE_3, mapOf(
+                                "a", 1, "b", 0, "c", 0));
+                    }
+                });
+
+        Assert.assertNotNull(row);
+        Assert.assertEquals(1, ((Number) row.get("d")).intValue());
+    }
+
+    public void testGroupCommit() throws Exception {
+        final GroupCommitCoordinator gc = new GroupCommitCoordinator(db,
+                TableDefinitions.SCHEMA_NAME, 2, TimeUnit.MILLISECONDS, 8);
+        final DatabaseTemplate gdt = new DatabaseTemplate(db, gc);
+
+        try {
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                final int base = t * 10;
+                threads[t] = new Thread(new Runnable() {
+                    public void run() {
+                        for (int i = 0; i < 10; i++) {
+                            final int key = base + i;
+                            try {
+                                gdt.inTransaction(
+                                        TransactionLevel.REPEATABLE_READ,
+                                        new TransactionCallback<Void>() {
+                                            public Void inTransaction(
+                                                    Transaction txn) {
+                                                gdt.insert(txn,
+                                                        TableDefinitions.TABLE_3,
+                                                        mapOf("a", key, "b",
+                                                                0, "c", 0, "d",
+                                                                key, "e", "t",
+                                                                "f", null));
+
+                                                return null;
+                                            }
+                                        });
+                            } catch (Exception e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            gc.close();
+            db.dropTable(GroupCommitCoordinator
+                    .createMarkerTableDef(TableDefinitions.SCHEMA_NAME));
+        }
+
+        final Reduction<Integer> r = new RowReduction<Integer>() {
+            public Integer reduce(RowView row, Integer initial) {
+                return initial + 1;
+            }
+        };
+
+        Integer count = dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Integer>() {
+                    public Integer inTransaction(Transaction txn) {
+                        return Functional.reduce(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3)).build(),
+                                r, 0);
+                    }
+                });
+
+        Assert.assertEquals(40, count.intValue());
+    }
+
     public void testDoubleDeletion() throws Exception {
         dt.inTransaction(TransactionLevel.REPEATABLE_READ,
                 new TransactionCallback<Void>() {
@@ -514,6 +676,744 @@ public class FunctionalTest {
         Assert.assertEquals(24, val2.intValue());
     }
 
+    public void testRowView() throws Exception {
+        populate();
+
+        final Map<String, Object> primary = new HashMap<String, Object>();
+        primary.put("a", 3);
+
+        final Filter primaryFilter = new RowFilter() {
+            public Boolean map(RowView row) {
+                return row.getInt("a") < 5;
+            }
+        };
+
+        final Filter filter = new RowFilter() {
+            public Boolean map(RowView row) {
+                return row.getLong("b") % 2 == 1 && row.getLong("c") % 2 == 0;
+            }
+        };
+
+        final Mapping<Map<String, Object>> m = new RowMapping<Map<String, Object>>() {
+            public Map<String, Object> map(RowView row) {
+                return row.toMap();
+            }
+        };
+
+        final TraversalSpec spec = new TraversalSpec(new Target(
+                TableDefinitions.TABLE_3), primary, primaryFilter, filter);
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Traversal<Map<String, Object>> iter = Functional.map(
+                                txn, spec, m);
+                        int found = 0;
+                        try {
+                            while (iter.hasNext()) {
+                                Map<String, Object> row = iter.next();
+                                Assert.assertTrue(((Number) row.get("a"))
+                                        .intValue() < 5);
+                                found += 1;
+                            }
+                        } finally {
+                            iter.close();
+                        }
+
+                        Assert.assertEquals(6, found);
+
+                        return null;
+                    }
+                });
+
+        final Reduction<Integer> r = new RowReduction<Integer>() {
+            public Integer reduce(RowView row, Integer initial) {
+                return initial + row.getInt("d");
+            }
+        };
+
+        Integer val = dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Integer>() {
+                    @Override
+                    public Integer inTransaction(Transaction txn) {
+                        return Functional.reduce(txn, spec, r, 0);
+                    }
+                });
+
+        Assert.assertEquals(12, val.intValue());
+    }
+
+    public void testProjection() throws Exception {
+        populate();
+
+        final Map<String, Object> primary = new HashMap<String, Object>();
+        primary.put("b", 1);
+
+        final Filter primaryFilter = new RowFilter() {
+            public Boolean map(RowView row) {
+                return row.getInt("b") == 1;
+            }
+        };
+
+        final TraversalSpec spec = new TraversalSpecBuilder(new Target(
+                TableDefinitions.TABLE_3, "bc")).withFirstKey(primary)
+                .withPrimaryFilter(primaryFilter).withColumns("a", "c")
+                .build();
+
+        final Mapping<Map<String, Object>> m = new Mapping<Map<String, Object>>() {
+            public Map<String, Object> map(Map<String, Object> row) {
+                return row;
+            }
+        };
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Traversal<Map<String, Object>> iter = Functional.map(
+                                txn, spec, m);
+                        int found = 0;
+                        try {
+                            while (iter.hasNext()) {
+                                Map<String, Object> row = iter.next();
+                                Assert.assertEquals("[a, c]", row.keySet()
+                                        .toString());
+                                found += 1;
+                            }
+                        } finally {
+                            iter.close();
+                        }
+
+                        Assert.assertEquals(36, found);
+
+                        Map<String, Object> p1 = new LinkedHashMap<String, Object>();
+                        p1.put("a", 2);
+                        p1.put("b", 1);
+                        p1.put("c", 3);
+
+                        Assert.assertEquals("{e=t, d=3}", dt.load(txn,
+                                TableDefinitions.TABLE_3, p1,
+                                Arrays.asList("e", "d")).toString());
+
+                        return null;
+                    }
+                });
+    }
+
+    public void testPartitionedReduce() throws Exception {
+        populate();
+
+        final Reduction<Long> sum = new RowReduction<Long>() {
+            public Long reduce(RowView row, Long initial) {
+                return initial + row.getLong("d");
+            }
+        };
+
+        final Combiner<Long> plus = new Combiner<Long>() {
+            public Long combine(Long left, Long right) {
+                return left + right;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PartitionedTraversal pt = new PartitionedTraversal(dt, executor);
+            TraversalSpec spec = new TraversalSpecBuilder(new Target(
+                    TableDefinitions.TABLE_3)).withColumns("d").build();
+
+            Assert.assertEquals(180L, pt.reduce(
+                    TransactionLevel.READ_COMMITTED, spec,
+                    Arrays.asList(mapOf("a", 2), mapOf("a", 4, "b", 1)), sum,
+                    () -> 0L, plus).longValue());
+
+            Assert.assertEquals(180L, pt.reduce(
+                    TransactionLevel.READ_COMMITTED, new TraversalSpecBuilder(
+                            new Target(TableDefinitions.TABLE_3, "bc"))
+                            .build(), Arrays.asList(mapOf("b", 1)), sum,
+                    () -> 0L, plus).longValue());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testPartitionedCollect() throws Exception {
+        populate();
+
+        final Reduction<List<Integer>> collect = new RowReduction<List<Integer>>() {
+            public List<Integer> reduce(RowView row, List<Integer> initial) {
+                initial.add(row.getInt("a"));
+
+                return initial;
+            }
+        };
+
+        final Combiner<List<Integer>> concat = new Combiner<List<Integer>>() {
+            public List<Integer> combine(List<Integer> left,
+                    List<Integer> right) {
+                left.addAll(right);
+
+                return left;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PartitionedTraversal pt = new PartitionedTraversal(dt, executor);
+            TraversalSpec spec = new TraversalSpecBuilder(new Target(
+                    TableDefinitions.TABLE_3)).withStartKey(mapOf("a", 2),
+                    true).withEndKey(mapOf("a", 4), false).build();
+
+            /* a=0 and a=5 fall outside the spec and must not widen it */
+            List<Integer> rows = pt.reduce(TransactionLevel.READ_COMMITTED,
+                    spec, Arrays.asList(mapOf("a", 0), mapOf("a", 3),
+                            mapOf("a", 5)), collect,
+                    () -> new ArrayList<Integer>(), concat);
+
+            Assert.assertEquals(24, rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Assert.assertEquals(i < 12 ? 2 : 3, rows.get(i).intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testKeySampler() throws Exception {
+        populate();
+
+        KeySampler sampler = new KeySampler(dt, 20);
+        KeySampler.Sample sample = sampler.getSample(TableDefinitions.TABLE_3,
+                null);
+        Assert.assertEquals(72, sample.getRowCount());
+        Assert.assertEquals(20, sample.size());
+        Assert.assertSame(sample, sampler.getSample(TableDefinitions.TABLE_3,
+                null));
+
+        List<Map<String, Object>> splits = sampler.getSplitKeys(
+                TableDefinitions.TABLE_3, "bc", 4);
+        Assert.assertTrue(splits.size() <= 3);
+        for (Map<String, Object> split : splits) {
+            Assert.assertEquals(new HashSet<String>(Arrays.asList("b", "c")),
+                    split.keySet());
+        }
+
+        final Reduction<Long> count = new RowReduction<Long>() {
+            public Long reduce(RowView row, Long initial) {
+                return initial + 1;
+            }
+        };
+
+        final Combiner<Long> plus = new Combiner<Long>() {
+            public Long combine(Long left, Long right) {
+                return left + right;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PartitionedTraversal pt = new PartitionedTraversal(dt, executor);
+
+            Assert.assertEquals(72L, pt.reduce(
+                    TransactionLevel.READ_COMMITTED, new TraversalSpecBuilder(
+                            new Target(TableDefinitions.TABLE_3))
+                            .withDirection(CursorDirection.DESC).build(),
+                    sampler, 4, count, () -> 0L, plus).longValue());
+        } finally {
+            executor.shutdown();
+        }
+
+        sampler.invalidate(TableDefinitions.TABLE_3);
+        Assert.assertNotSame(sample, sampler.getSample(
+                TableDefinitions.TABLE_3, null));
+    }
+
+    public void testStreams() throws Exception {
+        populate();
+
+        final Target target = new Target(TableDefinitions.TABLE_3);
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        TraversalSpec spec = new TraversalSpecBuilder(target)
+                                .build();
+
+                        try (Stream<RowView> rows = TraversalStreams.stream(
+                                txn, spec)) {
+                            List<RowView> firstThree = rows.limit(3).collect(
+                                    Collectors.toList());
+                            Assert.assertEquals(3, firstThree.size());
+                            Assert.assertEquals(0, firstThree.get(2).getInt(
+                                    "a"));
+                            Assert.assertEquals(2, firstThree.get(2).getInt(
+                                    "c"));
+                        }
+
+                        try (Stream<Integer> ds = TraversalStreams.stream(
+                                txn, spec, new RowMapping<Integer>() {
+                                    public Integer map(RowView row) {
+                                        return row.getInt("d");
+                                    }
+                                })) {
+                            Assert.assertTrue(ds.anyMatch(d -> d == 5));
+                        }
+
+                        return null;
+                    }
+                });
+
+        TraversalSpec spec = new TraversalSpecBuilder(target).withColumns(
+                "a", "d").build();
+
+        try (Stream<RowView> rows = TraversalStreams.parallelStream(db,
+                TransactionLevel.READ_COMMITTED, spec, Arrays.asList(mapOf(
+                        "a", 2), mapOf("a", 4)))) {
+            Assert.assertEquals(180L, rows.mapToLong(r -> r.getLong("d"))
+                    .sum());
+        }
+
+        try (Stream<RowView> rows = TraversalStreams.parallelStream(db,
+                TransactionLevel.READ_COMMITTED, spec, Arrays.asList(mapOf(
+                        "a", 2), mapOf("a", 4)))) {
+            Assert.assertEquals(3, rows.filter(r -> r.getInt("a") >= 3)
+                    .findFirst().get().getInt("a"));
+        }
+    }
+
+    public void testPrefetch() throws Exception {
+        populate();
+
+        TraversalSpec spec = new TraversalSpecBuilder(new Target(
+                TableDefinitions.TABLE_3)).build();
+
+        final AtomicLong sum = new AtomicLong();
+        Functional.prefetch(db, TransactionLevel.READ_COMMITTED, spec,
+                new RowMapping<Void>() {
+                    public Void map(RowView row) {
+                        sum.addAndGet(row.getLong("d"));
+
+                        return null;
+                    }
+                }, 10).traverseAll();
+
+        Assert.assertEquals(180L, sum.get());
+
+        /* closing early stops the reader and releases its cursor */
+        Traversal<Integer> iter = Functional.prefetch(db,
+                TransactionLevel.READ_COMMITTED, spec,
+                new RowMapping<Integer>() {
+                    public Integer map(RowView row) {
+                        return row.getInt("c");
+                    }
+                }, 4);
+
+        try {
+            Assert.assertEquals(Integer.valueOf(0), iter.next());
+            Assert.assertEquals(Integer.valueOf(1), iter.next());
+        } finally {
+            iter.close();
+        }
+
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    public void testDatabaseStatus() throws Exception {
+        DatabaseStatus status = db.getStatus();
+        Assert.assertNotNull(status.get("page_size"));
+        Assert.assertNull(status.get("no_such_variable"));
+
+        DatabaseStatusMonitor monitor = new DatabaseStatusMonitor(status, 1,
+                TimeUnit.HOURS);
+        monitor.poll();
+
+        final List<Interval> published = new ArrayList<Interval>();
+        monitor.addSink(new DatabaseStatusMonitor.Sink() {
+            public void publish(Interval interval) {
+                published.add(interval);
+            }
+        });
+
+        populate();
+
+        Interval interval = monitor.poll();
+        Assert.assertEquals(1, published.size());
+        Assert.assertTrue(interval.getDeltas().get("row_total_inserted") >= 72);
+        Assert.assertSame(interval, monitor.getLatest());
+    }
+
+    public void testMetrics() throws Exception {
+        populate();
+
+        final StripedMetricsRegistry metrics = new StripedMetricsRegistry();
+        final DatabaseTemplate mdt = new DatabaseTemplate(db, null,
+                metrics);
+        final String table = TableDefinitions.TABLE_3.getName();
+
+        mdt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        TableDef def = TableDefinitions.TABLE_3;
+
+                        Assert.assertNotNull(mdt.load(txn, def, mapOf("a", 1,
+                                "b", 0, "c", 2)));
+                        Assert.assertNull(mdt.load(txn, def, mapOf("a", 9,
+                                "b", 0, "c", 0)));
+                        Assert.assertFalse(mdt.update(txn, def, mapOf("a", 9,
+                                "b", 0, "c", 0, "d", 0, "e", "t")));
+                        Assert.assertFalse(mdt.delete(txn, def, mapOf("a", 9,
+                                "b", 0, "c", 0)));
+
+                        try {
+                            mdt.insert(txn, def, mapOf("a", 1, "b", 0, "c",
+                                    2, "d", 2, "e", "t", "f", null));
+                            Assert.fail("expected a duplicate key");
+                        } catch (DuplicateKeyException expected) {
+                        }
+
+                        return null;
+                    }
+                });
+
+        Assert.assertEquals(1, metrics.getCount(table,
+                MetricsRegistry.LOAD_HIT));
+        Assert.assertEquals(1, metrics.getCount(table,
+                MetricsRegistry.LOAD_MISS));
+        Assert.assertEquals(1, metrics.getCount(table,
+                MetricsRegistry.UPDATE_NOT_FOUND));
+        Assert.assertEquals(1, metrics.getCount(table,
+                MetricsRegistry.DELETE_NOT_FOUND));
+        Assert.assertEquals(1, metrics.getCount(table,
+                MetricsRegistry.INSERT_DUPLICATE));
+        Assert.assertEquals(2, metrics.getTimers(table).get(
+                MetricsRegistry.LOAD).getCount());
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Functional.foreach(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3))
+                                .withFilter(new RowFilter() {
+                                    public Boolean map(RowView row) {
+                                        return row.getInt("c") == 0;
+                                    }
+                                }).withMetrics(metrics).build(),
+                                new RowMapping<Void>() {
+                                    public Void map(RowView row) {
+                                        return null;
+                                    }
+                                });
+
+                        return null;
+                    }
+                });
+
+        Assert.assertEquals(72, metrics.getCount(table,
+                MetricsRegistry.ROWS_SCANNED));
+        Assert.assertEquals(12, metrics.getCount(table,
+                MetricsRegistry.ROWS_RETURNED));
+        Assert.assertEquals(1, metrics.getTimers(table).get(
+                MetricsRegistry.TRAVERSAL).getCount());
+    }
+
+    public void testSlowLog() throws Exception {
+        populate();
+
+        final List<SlowOperationLog.Entry> entries = new ArrayList<SlowOperationLog.Entry>();
+        final SlowOperationLog slowLog = new SlowOperationLog(0,
+                TimeUnit.MILLISECONDS, 1, new SlowOperationLog.Sink() {
+                    public void log(SlowOperationLog.Entry entry) {
+                        entries.add(entry);
+                    }
+                });
+        final DatabaseTemplate sdt = new DatabaseTemplate(db, null,
+                null, slowLog);
+
+        sdt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Assert.assertNotNull(sdt.load(txn,
+                                TableDefinitions.TABLE_3, mapOf("a", 1, "b",
+                                        0, "c", 2)));
+
+                        Functional.foreach(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3))
+                                .withFilter(new RowFilter() {
+                                    public Boolean map(RowView row) {
+                                        return row.getInt("c") == 0;
+                                    }
+                                }).withSlowLog(slowLog).build(),
+                                new RowMapping<Void>() {
+                                    public Void map(RowView row) {
+                                        return null;
+                                    }
+                                });
+
+                        return null;
+                    }
+                });
+
+        Assert.assertEquals(2, entries.size());
+
+        SlowOperationLog.Entry load = entries.get(0);
+        Assert.assertEquals(MetricsRegistry.LOAD, load.getOperation());
+        Assert.assertEquals(1, load.getRowsReturned());
+        Assert.assertEquals(3, load.getFirstKey().size());
+
+        SlowOperationLog.Entry scan = entries.get(1);
+        Assert.assertEquals(MetricsRegistry.TRAVERSAL, scan.getOperation());
+        Assert.assertEquals("PRIMARY", scan.getIndex());
+        Assert.assertEquals(72, scan.getRowsExamined());
+        Assert.assertEquals(12, scan.getRowsReturned());
+        Assert.assertTrue(scan.getCursorNanos() > 0);
+        Assert.assertTrue(scan.getFilterNanos() > 0);
+        Assert.assertTrue(scan.getTotalNanos() >= scan.getCursorNanos()
+                + scan.getFilterNanos() + scan.getMappingNanos());
+    }
+
+    public void testRangeScan() throws Exception {
+        populate();
+
+        final Map<String, Object> start = new HashMap<String, Object>();
+        start.put("a", 1);
+        final Map<String, Object> end = new HashMap<String, Object>();
+        end.put("a", 3);
+
+        final AtomicLong found = new AtomicLong();
+
+        final Mapping<Void> m = new RowMapping<Void>() {
+            public Void map(RowView row) {
+                int a = row.getInt("a");
+                Assert.assertTrue(a > 1 && a <= 3);
+                found.getAndIncrement();
+
+                return null;
+            }
+        };
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Functional.foreach(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3))
+                                .withStartKey(start, false).withEndKey(end,
+                                        true).build(), m);
+
+                        return null;
+                    }
+                });
+
+        Assert.assertEquals(24, found.get());
+
+        found.set(0);
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Functional.foreach(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3))
+                                .withDirection(CursorDirection.DESC)
+                                .withStartKey(end, true).withEndKey(start,
+                                        false).build(), m);
+
+                        return null;
+                    }
+                });
+
+        Assert.assertEquals(24, found.get());
+    }
+
+    public void testLoadAll() throws Exception {
+        populate();
+
+        final List<Map<String, Object>> keys = new ArrayList<Map<String, Object>>();
+        keys.add(mapOf("a", 4, "b", 1, "c", 2));
+        keys.add(mapOf("a", 0, "b", 0, "c", 0));
+        keys.add(mapOf("a", 9, "b", 0, "c", 0));
+        keys.add(mapOf("a", 0, "b", 0, "c", 1));
+        keys.add(mapOf("a", 4, "b", 1, "c", 2));
+        keys.add(mapOf("a", 2, "b", 7, "c", 0));
+
+        List<Map<String, Object>> rows = dt.inTransaction(
+                TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<List<Map<String, Object>>>() {
+                    public List<Map<String, Object>> inTransaction(
+                            Transaction txn) {
+                        return dt.loadAll(txn, TableDefinitions.TABLE_3, keys);
+                    }
+                });
+
+        Assert.assertEquals(6, rows.size());
+        Assert.assertEquals(2, ((Number) rows.get(0).get("d")).intValue());
+        Assert.assertEquals(0, ((Number) rows.get(1).get("c")).intValue());
+        Assert.assertNull(rows.get(2));
+        Assert.assertEquals(1, ((Number) rows.get(3).get("c")).intValue());
+        Assert.assertEquals(rows.get(0), rows.get(4));
+        Assert.assertNull(rows.get(5));
+    }
+
+    public void testInsertAll() throws Exception {
+        final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (int i = 9; i >= 0; i--) {
+            rows.add(mapOf("a", i, "b", 0, "c", 0, "d", i, "e", "t", "f",
+                    null));
+        }
+
+        final List<Integer> items = new ArrayList<Integer>();
+        for (int i = 19; i >= 10; i--) {
+            items.add(i);
+        }
+
+        final RowBinder<Integer> binder = new RowBinder<Integer>() {
+            public void bind(Integer item, RowWriter writer) {
+                writer.setByte(0, item.byteValue()).setShort(1, (short) 0)
+                        .setInt(2, 0).setLong(3, item).setUtf8(4, "t")
+                        .setNull(5);
+            }
+        };
+
+        final Comparator<Integer> natural = new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return a.compareTo(b);
+            }
+        };
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Assert.assertEquals(10, dt.insertAll(txn,
+                                TableDefinitions.TABLE_3, rows, true));
+                        Assert.assertEquals(10, dt.insertAll(txn,
+                                TableDefinitions.TABLE_3, items, binder,
+                                natural));
+
+                        return null;
+                    }
+                });
+
+        final Reduction<Integer> r = new RowReduction<Integer>() {
+            public Integer reduce(RowView row, Integer initial) {
+                return initial + row.getInt("d");
+            }
+        };
+
+        Integer sum = dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Integer>() {
+                    public Integer inTransaction(Transaction txn) {
+                        return Functional.reduce(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3)).build(),
+                                r, 0);
+                    }
+                });
+
+        Assert.assertEquals(190, sum.intValue());
+    }
+
+    public void testCursorCache() throws Exception {
+        populate();
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Cursor c0 = txn.borrowCursor(TableDefinitions.TABLE_3);
+                        c0.first();
+                        txn.returnCursor(c0);
+
+                        Cursor c1 = txn.borrowCursor(TableDefinitions.TABLE_3);
+                        Assert.assertSame(c0, c1);
+
+                        Cursor index = txn.borrowCursor(
+                                TableDefinitions.TABLE_3, "bc", null);
+                        Assert.assertNotSame(c1, index);
+                        txn.returnCursor(index);
+
+                        Tuple t = c1.createClusteredIndexReadTuple();
+                        try {
+                            c1.last();
+                            c1.readRow(t);
+                            Assert.assertEquals(5, t.getInt("a"));
+                        } finally {
+                            t.delete();
+                            txn.returnCursor(c1);
+                        }
+
+                        Cursor exclusive = txn.borrowCursor(
+                                TableDefinitions.TABLE_3, null,
+                                LockMode.INTENTION_EXCLUSIVE);
+                        Assert.assertNotSame(c1, exclusive);
+                        txn.returnCursor(exclusive);
+
+                        /* a reused cursor gets its lock mode back */
+                        Cursor again = txn.borrowCursor(
+                                TableDefinitions.TABLE_3, null,
+                                LockMode.INTENTION_EXCLUSIVE);
+                        Assert.assertSame(exclusive, again);
+                        Assert.assertEquals(LockMode.INTENTION_EXCLUSIVE,
+                                again.getLockMode());
+
+                        Tuple row = again.createClusteredIndexReadTuple();
+                        try {
+                            again.first();
+                            again.readRow(row);
+                            Assert.assertEquals(0, row.getInt("a"));
+                        } finally {
+                            row.delete();
+                            txn.returnCursor(again);
+                        }
+
+                        return null;
+                    }
+                });
+    }
+
+    public void testInsertAllWithSavepoints() throws Exception {
+        final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(mapOf("a", i, "b", 0, "c", 0, "d", i, "e", "t", "f",
+                    null));
+
+            if (i == 7 || i == 12) {
+                rows.add(mapOf("a", i, "b", 0, "c", 0, "d", 100, "e", "t",
+                        "f", null));
+            }
+        }
+
+        final List<Map<String, Object>> failed = new ArrayList<Map<String, Object>>();
+        final RowErrorHandler handler = new RowErrorHandler() {
+            public void onError(Map<String, Object> row, InnoException error) {
+                Assert.assertTrue(error instanceof DuplicateKeyException);
+                failed.add(row);
+            }
+        };
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    public Void inTransaction(Transaction txn) {
+                        Assert.assertEquals(20, dt.insertAll(txn,
+                                TableDefinitions.TABLE_3, rows, 5, handler));
+
+                        return null;
+                    }
+                });
+
+        Assert.assertEquals(2, failed.size());
+
+        final Reduction<Integer> r = new RowReduction<Integer>() {
+            public Integer reduce(RowView row, Integer initial) {
+                return initial + row.getInt("d");
+            }
+        };
+
+        Integer sum = dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Integer>() {
+                    public Integer inTransaction(Transaction txn) {
+                        return Functional.reduce(txn, new TraversalSpecBuilder(
+                                new Target(TableDefinitions.TABLE_3)).build(),
+                                r, 0);
+                    }
+                });
+
+        Assert.assertEquals(190, sum.intValue());
+    }
+
     public void testSecondaryIndex() throws Exception {
         populate();
 
@@ -690,6 +1590,143 @@ public class FunctionalTest {
                 });
     }
 
+    public void testPrimitiveAccessors() throws Exception {
+        populate();
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    @Override
+                    public Void inTransaction(Transaction txn) {
+                        Cursor c = txn.openTable(TableDefinitions.TABLE_3);
+                        Tuple t = c.createClusteredIndexReadTuple();
+
+                        try {
+                            c.last();
+                            c.readRow(t);
+
+                            Assert.assertEquals(5, t.getByte(0));
+                            Assert.assertEquals(1, t.getShort(1));
+                            Assert.assertEquals(5, t.getInt(2));
+                            Assert.assertEquals(5L, t.getLong(3));
+                            Assert.assertFalse(t.isNull(3));
+                            Assert.assertTrue(t.isNull(5));
+
+                            try {
+                                t.getInt(3);
+                                Assert.fail("expected exception!");
+                            } catch (IllegalArgumentException expected) {
+                            }
+                        } finally {
+                            t.delete();
+                            c.close();
+                        }
+
+                        return null;
+                    }
+                });
+    }
+
+    public void testRowWriter() throws Exception {
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    @Override
+                    public Void inTransaction(Transaction txn) {
+                        Cursor c = txn.openTable(TableDefinitions.TABLE_3);
+                        Tuple t = c.createClusteredIndexReadTuple();
+                        RowWriter w = new RowWriter(t);
+
+                        try {
+                            for (int i = 0; i < 3; i++) {
+                                w.setByte(0, (byte) i).setShort(1, (short) i)
+                                        .setInt(2, i).setLong(3, i)
+                                        .setUtf8(4, "t\u00e9st")
+                                        .setBytes(5, "f".getBytes(), 0, 1);
+                                c.insertRow(t);
+                            }
+                        } finally {
+                            t.delete();
+                            c.close();
+                        }
+
+                        Map<String, Object> p1 = new LinkedHashMap<String, Object>();
+                        p1.put("a", 2L);
+                        p1.put("b", 2L);
+                        p1.put("c", 2L);
+
+                        Assert.assertEquals(
+                                mapOf("a", 2, "b", 2, "c", 2, "d", 2, "e",
+                                        "t\u00e9st", "f", "f").toString(),
+                                withStringBlob(dt.load(txn,
+                                        TableDefinitions.TABLE_3, p1))
+                                        .toString());
+
+                        return null;
+                    }
+                });
+    }
+
+    public void testBlobStream() throws Exception {
+        final byte[] payload = new byte[100 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        dt.inTransaction(TransactionLevel.REPEATABLE_READ,
+                new TransactionCallback<Void>() {
+                    @Override
+                    public Void inTransaction(Transaction txn) {
+                        Cursor c = txn.openTable(TableDefinitions.TABLE_3);
+                        Tuple t = c.createClusteredIndexReadTuple();
+
+                        try {
+                            new RowWriter(t).setByte(0, (byte) 1)
+                                    .setShort(1, (short) 1).setInt(2, 1)
+                                    .setLong(3, 1).setUtf8(4, "blob")
+                                    .setBytes(5, payload);
+                            c.insertRow(t);
+                        } finally {
+                            t.delete();
+                            c.close();
+                        }
+
+                        Map<String, Object> p1 = new LinkedHashMap<String, Object>();
+                        p1.put("a", 1L);
+                        p1.put("b", 1L);
+                        p1.put("c", 1L);
+
+                        byte[] read = dt.load(txn, TableDefinitions.TABLE_3,
+                                p1, new RowMapping<byte[]>() {
+                                    public byte[] map(RowView row) {
+                                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                                        InputStream in = row.getInputStream("f");
+                                        byte[] buf = new byte[4096];
+                                        try {
+                                            int n;
+                                            while ((n = in.read(buf)) != -1) {
+                                                out.write(buf, 0, n);
+                                            }
+                                        } catch (IOException e) {
+                                            throw new RuntimeException(e);
+                                        }
+
+                                        return out.toByteArray();
+                                    }
+                                });
+
+                        Assert.assertTrue(Arrays.equals(payload, read));
+
+                        return null;
+                    }
+                });
+    }
+
+    private Map<String, Object> withStringBlob(Map<String, Object> row) {
+        Map<String, Object> result = new LinkedHashMap<String, Object>(row);
+        result.put("f", new String((byte[]) row.get("f")));
+
+        return result;
+    }
+
     private void populate() throws Exception {
         dt.inTransaction(TransactionLevel.REPEATABLE_READ,
                 new TransactionCallback<Void>() {
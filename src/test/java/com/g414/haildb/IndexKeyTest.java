@@ -0,0 +1,85 @@
+package com.g414.haildb;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.IndexKey;
+import com.g414.haildb.tpl.PartitionedTraversal;
+import com.g414.haildb.tpl.TraversalSpecBuilder;
+
+@Test
+public class IndexKeyTest {
+    public void testLeadingPrefix() {
+        IndexDef primary = TableDefinitions.TABLE_3.getPrimaryIndex();
+
+        Assert.assertTrue(new IndexKey(primary, key("a", 1)).isLeadingPrefix());
+        Assert.assertTrue(new IndexKey(primary, key("a", 1, "b", 2))
+                .isLeadingPrefix());
+        Assert.assertFalse(new IndexKey(primary, key("b", 2))
+                .isLeadingPrefix());
+        Assert.assertFalse(new IndexKey(primary, key("a", 1, "c", 3))
+                .isLeadingPrefix());
+
+        /* non-key columns are ignored, as for full rows */
+        Assert.assertTrue(new IndexKey(primary, key("a", 1, "d", 4))
+                .isLeadingPrefix());
+    }
+
+    public void testRejectsNonPrefixBounds() {
+        Target target = new Target(TableDefinitions.TABLE_3);
+
+        try {
+            new TraversalSpecBuilder(target).withEndKey(key("b", 2), false);
+            Assert.fail("expected a non-prefix end key to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            PartitionedTraversal.split(new TraversalSpecBuilder(target)
+                    .build(), Collections.singletonList(key("c", 3)));
+            Assert.fail("expected a non-prefix split key to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testStringOrder() {
+        TableBuilder b = new TableBuilder("foo/strings");
+        b.addColumn("v", ColumnType.VARCHAR, 20, ColumnAttribute.NOT_NULL);
+        b.addColumn("w", ColumnType.VARCHAR_ANYCHARSET, 20,
+                ColumnAttribute.NOT_NULL);
+        b.addIndex("PRIMARY", "v", 0, true, true);
+        b.addIndex("w", "w", 0, false, false);
+        TableDef def = b.build();
+
+        IndexDef primary = def.getPrimaryIndex();
+        IndexDef w = def.getIndexDef("w");
+
+        Assert.assertTrue(compare(primary, "v", "a", "a ") < 0);
+        Assert.assertTrue(compare(primary, "v", "a\u0001", "a") > 0);
+        Assert.assertTrue(compare(primary, "v", "ab", "b") < 0);
+        Assert.assertEquals(0, compare(primary, "v", "abc", "abc"));
+
+        Assert.assertTrue(compare(w, "w", "a", "a ") < 0);
+        Assert.assertTrue(compare(w, "w", "ab", "b") < 0);
+    }
+
+    private static int compare(IndexDef index, String col, String a, String b) {
+        return new IndexKey(index, key(col, a)).compareTo(new IndexKey(index,
+                key(col, b)));
+    }
+
+    private static Map<String, Object> key(Object... pairs) {
+        Map<String, Object> key = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            key.put((String) pairs[i], pairs[i + 1]);
+        }
+
+        return key;
+    }
+}
@@ -0,0 +1,55 @@
+package com.g414.haildb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.tpl.KeySampler.Sample;
+
+@Test
+public class KeySamplerTest {
+    private static final IndexDef PRIMARY = TableDefinitions.TABLE_3
+            .getPrimaryIndex();
+
+    public void testSplitKeys() {
+        List<Map<String, Object>> keys = new ArrayList<Map<String, Object>>();
+        for (int i = 99; i >= 0; i--) {
+            keys.add(Collections.<String, Object> singletonMap("a", i));
+        }
+
+        Sample sample = new Sample(PRIMARY, 1000, keys);
+        Assert.assertEquals(1000, sample.getRowCount());
+        Assert.assertEquals(100, sample.size());
+
+        List<Map<String, Object>> splits = sample.getSplitKeys(4);
+        Assert.assertEquals(3, splits.size());
+        Assert.assertEquals(25, splits.get(0).get("a"));
+        Assert.assertEquals(50, splits.get(1).get("a"));
+        Assert.assertEquals(75, splits.get(2).get("a"));
+
+        Assert.assertTrue(sample.getSplitKeys(1).isEmpty());
+    }
+
+    public void testDuplicateKeys() {
+        List<Map<String, Object>> keys = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < 90; i++) {
+            keys.add(Collections.<String, Object> singletonMap("a", i / 30));
+        }
+
+        /* only two distinct boundaries exist however many are asked for */
+        List<Map<String, Object>> splits = new Sample(PRIMARY, 90, keys)
+                .getSplitKeys(10);
+        Assert.assertEquals(2, splits.size());
+        Assert.assertEquals(1, splits.get(0).get("a"));
+        Assert.assertEquals(2, splits.get(1).get("a"));
+
+        List<Map<String, Object>> none = Collections.emptyList();
+        Assert.assertTrue(new Sample(PRIMARY, 0, none).getSplitKeys(4)
+                .isEmpty());
+    }
+}
@@ -0,0 +1,133 @@
+package com.g414.haildb;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+import com.g414.haildb.tpl.PartitionedTraversal;
+import com.g414.haildb.tpl.TraversalSpecBuilder;
+
+@Test
+public class PartitionedTraversalTest {
+    private static final Target TARGET = new Target(TableDefinitions.TABLE_3);
+
+    public void testSplit() {
+        Map<String, Object> start = Collections.<String, Object> singletonMap(
+                "a", 1);
+        Map<String, Object> end = Collections.<String, Object> singletonMap(
+                "a", 9);
+        Map<String, Object> s1 = Collections.<String, Object> singletonMap(
+                "a", 3);
+        Map<String, Object> s2 = Collections.<String, Object> singletonMap(
+                "a", 6);
+
+        TraversalSpec spec = new TraversalSpecBuilder(TARGET).withStartKey(
+                start, false).withEndKey(end, true).withColumns("a", "d")
+                .build();
+
+        List<TraversalSpec> ranges = PartitionedTraversal.split(spec, Arrays
+                .asList(s1, s2));
+        Assert.assertEquals(3, ranges.size());
+
+        Assert.assertEquals(start, ranges.get(0).getFirstKey());
+        Assert.assertEquals(SearchMode.G, ranges.get(0).getSearchMode());
+        Assert.assertEquals(s1, ranges.get(0).getEndKey());
+        Assert.assertFalse(ranges.get(0).isEndInclusive());
+
+        Assert.assertEquals(s1, ranges.get(1).getFirstKey());
+        Assert.assertEquals(SearchMode.GE, ranges.get(1).getSearchMode());
+        Assert.assertEquals(s2, ranges.get(1).getEndKey());
+
+        Assert.assertEquals(s2, ranges.get(2).getFirstKey());
+        Assert.assertEquals(end, ranges.get(2).getEndKey());
+        Assert.assertTrue(ranges.get(2).isEndInclusive());
+        Assert.assertEquals(Arrays.asList("a", "d"), ranges.get(2)
+                .getColumns());
+
+        /* no split keys leaves the traversal whole */
+        List<Map<String, Object>> none = Collections.emptyList();
+        Assert.assertEquals(1, PartitionedTraversal.split(spec, none).size());
+    }
+
+    public void testSplitOutsideBounds() {
+        Map<String, Object> start = Collections.<String, Object> singletonMap(
+                "a", 50);
+        Map<String, Object> end = Collections.<String, Object> singletonMap(
+                "a", 80);
+        Map<String, Object> s1 = Collections.<String, Object> singletonMap(
+                "a", 10);
+        Map<String, Object> s2 = Collections.<String, Object> singletonMap(
+                "a", 60);
+        Map<String, Object> s3 = Collections.<String, Object> singletonMap(
+                "a", 90);
+
+        TraversalSpec asc = new TraversalSpecBuilder(TARGET).withStartKey(
+                start, true).withEndKey(end, false).build();
+
+        List<TraversalSpec> ranges = PartitionedTraversal.split(asc, Arrays
+                .asList(s1, s2, s3));
+        Assert.assertEquals(2, ranges.size());
+        Assert.assertEquals(start, ranges.get(0).getFirstKey());
+        Assert.assertEquals(s2, ranges.get(0).getEndKey());
+        Assert.assertEquals(s2, ranges.get(1).getFirstKey());
+        Assert.assertEquals(end, ranges.get(1).getEndKey());
+
+        /* keys on a bound, or sharing its prefix, are dropped too */
+        Map<String, Object> onStart = new LinkedHashMap<String, Object>();
+        onStart.put("a", 50);
+        onStart.put("b", 1);
+        ranges = PartitionedTraversal.split(asc, Arrays.asList(onStart, end));
+        Assert.assertEquals(1, ranges.size());
+        Assert.assertEquals(start, ranges.get(0).getFirstKey());
+        Assert.assertEquals(end, ranges.get(0).getEndKey());
+
+        TraversalSpec desc = new TraversalSpecBuilder(TARGET).withDirection(
+                CursorDirection.DESC).withStartKey(end, true).withEndKey(
+                start, true).build();
+
+        ranges = PartitionedTraversal.split(desc, Arrays.asList(s3, s2, s1));
+        Assert.assertEquals(2, ranges.size());
+        Assert.assertEquals(end, ranges.get(0).getFirstKey());
+        Assert.assertEquals(s2, ranges.get(0).getEndKey());
+        Assert.assertEquals(s2, ranges.get(1).getFirstKey());
+        Assert.assertEquals(start, ranges.get(1).getEndKey());
+        Assert.assertTrue(ranges.get(1).isEndInclusive());
+    }
+
+    public void testSplitOrder() {
+        Map<String, Object> s1 = Collections.<String, Object> singletonMap(
+                "a", 3);
+        Map<String, Object> s2 = Collections.<String, Object> singletonMap(
+                "a", 6);
+
+        TraversalSpec asc = new TraversalSpecBuilder(TARGET).build();
+        TraversalSpec desc = new TraversalSpecBuilder(TARGET).withDirection(
+                CursorDirection.DESC).build();
+
+        List<TraversalSpec> ranges = PartitionedTraversal.split(desc, Arrays
+                .asList(s2, s1));
+        Assert.assertEquals(SearchMode.LE, ranges.get(1).getSearchMode());
+
+        try {
+            PartitionedTraversal.split(asc, Arrays.asList(s2, s1));
+            Assert.fail("expected out-of-order split keys to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            PartitionedTraversal.split(asc, Arrays.asList(s1, s1));
+            Assert.fail("expected duplicate split keys to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.g414.haildb;
+
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.InnoException.CommitUnconfirmedException;
+import com.g414.haildb.InnoException.DeadlockException;
+import com.g414.haildb.InnoException.DuplicateKeyException;
+import com.g414.haildb.InnoException.LockWaitTimeoutException;
+import com.g414.haildb.impl.jna.HailDB;
+import com.g414.haildb.tpl.RetryPolicy;
+
+@Test
+public class RetryPolicyTest {
+    public void testRetryable() {
+        RetryPolicy policy = new RetryPolicy(3, 1, 100, TimeUnit.MILLISECONDS);
+
+        InnoException deadlock = new DeadlockException(
+                HailDB.db_err.DB_DEADLOCK, "deadlock");
+        Assert.assertEquals(HailDB.db_err.DB_DEADLOCK, deadlock.getErrorCode());
+        Assert.assertTrue(policy.isRetryable(deadlock));
+        Assert.assertTrue(policy.isRetryable(new LockWaitTimeoutException(
+                HailDB.db_err.DB_LOCK_WAIT_TIMEOUT, "timeout")));
+
+        /* traversals wrap failures in RuntimeException */
+        Assert.assertTrue(policy.isRetryable(new RuntimeException(deadlock)));
+
+        Assert.assertFalse(policy.isRetryable(new DuplicateKeyException(
+                HailDB.db_err.DB_DUPLICATE_KEY, "duplicate")));
+        Assert.assertFalse(policy.isRetryable(new InnoException("other")));
+        Assert.assertFalse(policy.isRetryable(new IllegalStateException()));
+
+        /* a committed transaction must not run again */
+        InnoException flushFailed = new InnoException("group log flush failed",
+                deadlock);
+        Assert.assertTrue(policy.isRetryable(flushFailed));
+        Assert.assertFalse(policy.isRetryable(new CommitUnconfirmedException(
+                "transaction committed", flushFailed)));
+        Assert.assertFalse(policy.shouldRetry(1, new RuntimeException(
+                new CommitUnconfirmedException("transaction committed",
+                        deadlock))));
+
+        Assert.assertTrue(policy.shouldRetry(2, deadlock));
+        Assert.assertFalse(policy.shouldRetry(3, deadlock));
+        Assert.assertFalse(RetryPolicy.NONE.shouldRetry(1, deadlock));
+    }
+
+    public void testBackoff() {
+        RetryPolicy policy = new RetryPolicy(100, 1, 50, TimeUnit.MILLISECONDS);
+        long max = TimeUnit.MILLISECONDS.toNanos(50);
+
+        for (int attempt = 1; attempt < 100; attempt++) {
+            long ceiling = Math.min(max, TimeUnit.MILLISECONDS
+                    .toNanos(1L << Math.min(attempt - 1, 20)));
+            long backoff = policy.getBackoffNanos(attempt);
+
+            Assert.assertTrue(backoff >= 0);
+            Assert.assertTrue(backoff <= ceiling);
+        }
+    }
+}
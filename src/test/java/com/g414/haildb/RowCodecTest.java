@@ -0,0 +1,39 @@
+package com.g414.haildb;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+@Test
+public class RowCodecTest {
+    public void testPositions() {
+        RowCodec table = TableDefinitions.TABLE_3.getRowCodec();
+        Assert.assertEquals(6, table.size());
+        Assert.assertEquals(0, table.getPosition("a"));
+        Assert.assertEquals(5, table.getPosition("f"));
+        Assert.assertEquals("d", table.getColumn(3).getName());
+        Assert.assertFalse(table.hasColumn("z"));
+
+        RowCodec bc = TableDefinitions.TABLE_3.getIndexDef("bc")
+                .getRowCodec();
+        Assert.assertEquals(3, bc.size());
+        Assert.assertEquals(0, bc.getPosition("b"));
+        Assert.assertEquals(1, bc.getPosition("c"));
+        Assert.assertEquals(2, bc.getPosition("a"));
+
+        Assert.assertEquals("[2, 0]", Arrays.toString(table
+                .getPositions(Arrays.asList("c", "a"))));
+
+        IndexDef index = TableDefinitions.TABLE_3.getIndexDef("bc");
+        Assert.assertTrue(index.covers(Arrays.asList("a", "c")));
+        Assert.assertFalse(index.covers(Arrays.asList("a", "d")));
+
+        try {
+            table.getPosition("z");
+            Assert.fail("expected exception!");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
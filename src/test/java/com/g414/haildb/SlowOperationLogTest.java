@@ -0,0 +1,124 @@
+package com.g414.haildb;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.Cursor.CursorDirection;
+import com.g414.haildb.Cursor.SearchMode;
+import com.g414.haildb.tpl.Functional.Target;
+import com.g414.haildb.tpl.Functional.TraversalSpec;
+import com.g414.haildb.tpl.MetricsRegistry;
+import com.g414.haildb.tpl.SlowOperationLog;
+import com.g414.haildb.tpl.SlowOperationLog.Entry;
+import com.g414.haildb.tpl.SlowOperationLog.Sink;
+import com.g414.haildb.tpl.TraversalSpecBuilder;
+
+@Test
+public class SlowOperationLogTest {
+    public void testThreshold() {
+        RecordingSink sink = new RecordingSink();
+        SlowOperationLog never = new SlowOperationLog(1, TimeUnit.HOURS, 1,
+                sink);
+        SlowOperationLog always = new SlowOperationLog(0, TimeUnit.HOURS, 1,
+                sink);
+
+        Map<String, Object> row = row(1, 2, 3);
+        never.finish(never.start(MetricsRegistry.LOAD, TableDefinitions.TABLE_3,
+                row));
+        Assert.assertTrue(sink.entries.isEmpty());
+
+        always.finish(always.start(MetricsRegistry.LOAD,
+                TableDefinitions.TABLE_3, row));
+        Assert.assertEquals(1, sink.entries.size());
+
+        Entry entry = sink.entries.get(0);
+        Assert.assertEquals(MetricsRegistry.LOAD, entry.getOperation());
+        Assert.assertEquals(TableDefinitions.TABLE_3.getName(), entry
+                .getTable());
+        Assert.assertEquals("PRIMARY", entry.getIndex());
+        Assert.assertEquals("{a=1, b=2, c=3}", entry.getFirstKey().toString());
+        Assert.assertNull(entry.getDirection());
+        Assert.assertTrue(entry.getTotalNanos() > 0);
+        Assert.assertEquals(entry.getTotalNanos(), entry.getOtherNanos());
+        Assert.assertTrue(entry.toString().startsWith(
+                "SlowOperation[load table=" + entry.getTable()));
+    }
+
+    public void testTraversalEntry() {
+        RecordingSink sink = new RecordingSink();
+        SlowOperationLog log = new SlowOperationLog(0, TimeUnit.MILLISECONDS,
+                1, sink);
+
+        TraversalSpec spec = new TraversalSpecBuilder(new Target(
+                TableDefinitions.TABLE_3, "bc")).withDirection(
+                CursorDirection.DESC).withStartKey(row(1, 2, 3), true)
+                .withEndKey(row(1, 0, 0), false).build();
+
+        log.finish(log.start(spec));
+
+        Entry entry = sink.entries.get(0);
+        Assert.assertEquals(MetricsRegistry.TRAVERSAL, entry.getOperation());
+        Assert.assertEquals("bc", entry.getIndex());
+        Assert.assertEquals(CursorDirection.DESC, entry.getDirection());
+        Assert.assertEquals(SearchMode.LE, entry.getSearchMode());
+        Assert.assertEquals(row(1, 0, 0), entry.getEndKey());
+        Assert.assertFalse(entry.isEndInclusive());
+        Assert.assertTrue(entry.toString().contains("(exclusive)"));
+    }
+
+    public void testSampling() {
+        SlowOperationLog log = new SlowOperationLog(0, TimeUnit.MILLISECONDS,
+                4, new RecordingSink());
+
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (log.start(MetricsRegistry.DELETE, TableDefinitions.TABLE_3,
+                    null) != null) {
+                sampled += 1;
+            }
+        }
+
+        Assert.assertTrue("sampled " + sampled, sampled > 2000
+                && sampled < 3000);
+    }
+
+    public void testValidation() {
+        try {
+            new SlowOperationLog(-1, TimeUnit.MILLISECONDS);
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            new SlowOperationLog(10, TimeUnit.MILLISECONDS, 0,
+                    new RecordingSink());
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static Map<String, Object> row(int a, int b, int c) {
+        Map<String, Object> row = new LinkedHashMap<String, Object>();
+        row.put("a", a);
+        row.put("b", b);
+        row.put("c", c);
+
+        return row;
+    }
+
+    private static class RecordingSink implements Sink {
+        private final List<Entry> entries = new ArrayList<Entry>();
+
+        @Override
+        public void log(Entry entry) {
+            entries.add(entry);
+        }
+    }
+}
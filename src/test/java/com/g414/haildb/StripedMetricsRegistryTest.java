@@ -0,0 +1,73 @@
+package com.g414.haildb;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.tpl.MetricsRegistry;
+import com.g414.haildb.tpl.StripedMetricsRegistry;
+import com.g414.haildb.tpl.StripedMetricsRegistry.TimerStats;
+
+@Test
+public class StripedMetricsRegistryTest {
+    public void testCountersAndTimers() {
+        StripedMetricsRegistry metrics = new StripedMetricsRegistry();
+        Assert.assertTrue(Double.isNaN(metrics.getSelectivity("foo/bar")));
+
+        metrics.count("foo/bar", MetricsRegistry.ROWS_SCANNED, 100);
+        metrics.count("foo/bar", MetricsRegistry.ROWS_RETURNED, 25);
+        metrics.count("foo/bar", MetricsRegistry.LOAD_HIT, 1);
+        metrics.time("foo/bar", MetricsRegistry.LOAD, 300);
+        metrics.time("foo/bar", MetricsRegistry.LOAD, 100);
+        metrics.time("foo/buz", MetricsRegistry.DELETE, 50);
+
+        Assert.assertEquals(0.25, metrics.getSelectivity("foo/bar"), 1e-9);
+        Assert.assertEquals(1, metrics.getCount("foo/bar",
+                MetricsRegistry.LOAD_HIT));
+        Assert.assertEquals(0, metrics.getCount("foo/bar",
+                MetricsRegistry.LOAD_MISS));
+        Assert.assertEquals(3, metrics.getCounters("foo/bar").size());
+
+        TimerStats load = metrics.getTimers("foo/bar").get(
+                MetricsRegistry.LOAD);
+        Assert.assertEquals(2, load.getCount());
+        Assert.assertEquals(200, load.getMeanNanos());
+        Assert.assertEquals(300, load.getMaxNanos());
+
+        Assert.assertEquals(2, metrics.getTables().size());
+
+        metrics.reset();
+        Assert.assertTrue(metrics.getTables().isEmpty());
+    }
+
+    public void testConcurrentCounts() throws Exception {
+        final StripedMetricsRegistry metrics = new StripedMetricsRegistry();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        metrics.count("foo/bar", MetricsRegistry.ROWS_SCANNED,
+                                1);
+                        metrics.time("foo/bar", MetricsRegistry.TRAVERSAL, i);
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Assert.assertEquals(80000, metrics.getCount("foo/bar",
+                MetricsRegistry.ROWS_SCANNED));
+        Assert.assertEquals(80000, metrics.getTimers("foo/bar").get(
+                MetricsRegistry.TRAVERSAL).getCount());
+        Assert.assertEquals(9999, metrics.getTimers("foo/bar").get(
+                MetricsRegistry.TRAVERSAL).getMaxNanos());
+    }
+}
@@ -0,0 +1,69 @@
+package com.g414.haildb;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.sun.jna.Pointer;
+
+@Test
+public class TupleArenaTest {
+    public void testAllocateAndReset() {
+        TupleArena arena = new TupleArena(16);
+
+        Pointer a = arena.copyOf("0123456789".getBytes(), 0, 10);
+        Pointer b = arena.copyOf("abcdefghij".getBytes(), 2, 4);
+
+        Assert.assertEquals("0123456789", new String(a.getByteArray(0, 10)));
+        Assert.assertEquals("cdef", new String(b.getByteArray(0, 4)));
+
+        arena.reset();
+
+        Pointer c = arena.copyOf("xyz".getBytes(), 0, 3);
+        Assert.assertEquals("xyz", new String(c.getByteArray(0, 3)));
+        Assert.assertEquals("xyz3456789", new String(a.getByteArray(0, 10)));
+
+        arena.release();
+        Assert.assertTrue(arena.isReleased());
+    }
+
+    public void testOversizedAllocation() {
+        TupleArena arena = new TupleArena(8);
+
+        byte[] big = new byte[100];
+        big[99] = 42;
+
+        Pointer p = arena.copyOf(big, 0, big.length);
+        Assert.assertEquals(42, p.getByte(99));
+
+        arena.reset();
+        arena.release();
+    }
+
+    public void testStringsAreNulTerminated() {
+        TupleArena arena = new TupleArena();
+
+        Pointer p = arena.copyOfString("foo".getBytes());
+        Assert.assertEquals("foo", p.getString(0));
+
+        ByteBuffer buf = arena.allocateBuffer(4);
+        Assert.assertTrue(buf.isDirect());
+        Assert.assertEquals(4, buf.remaining());
+
+        arena.release();
+    }
+
+    public void testReleasedArena() {
+        TupleArena arena = new TupleArena();
+        arena.release();
+        arena.reset();
+
+        try {
+            arena.allocate(1);
+            Assert.fail("expected exception!");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.g414.haildb.impl.jna;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.Assert;
+
+import org.testng.annotations.Test;
+
+import com.g414.haildb.impl.jna.NativeStats.LatencyHistogram;
+
+@Test
+public class NativeStatsTest {
+    public void testBucketBoundaries() {
+        Assert.assertEquals(0, LatencyHistogram.bucketOf(0));
+        Assert.assertEquals(7, LatencyHistogram.bucketOf(7));
+        Assert.assertEquals(8, LatencyHistogram.bucketOf(8));
+        Assert.assertEquals(15, LatencyHistogram.bucketOf(15));
+        Assert.assertEquals(16, LatencyHistogram.bucketOf(16));
+        Assert.assertEquals(16, LatencyHistogram.bucketOf(17));
+        Assert.assertEquals(17, LatencyHistogram.bucketOf(18));
+
+        Assert.assertEquals(0, LatencyHistogram.upperBound(0));
+        Assert.assertEquals(7, LatencyHistogram.upperBound(7));
+        Assert.assertEquals(15, LatencyHistogram.upperBound(15));
+        Assert.assertEquals(17, LatencyHistogram.upperBound(16));
+
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(last));
+        Assert.assertEquals(last, LatencyHistogram.bucketOf(LatencyHistogram
+                .upperBound(last - 1) + 1));
+        Assert.assertEquals((64 - LatencyHistogram.SUB_BUCKET_BITS + 1)
+                * LatencyHistogram.SUB_BUCKETS, new LatencyHistogram()
+                .snapshot().length);
+        Assert.assertTrue(last < new LatencyHistogram().snapshot().length);
+    }
+
+    public void testUpperBoundWithinAnEighth() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < 100000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            assertBound(value);
+        }
+
+        for (int shift = 0; shift < 63; shift++) {
+            assertBound(1L << shift);
+            assertBound((1L << shift) - 1);
+            assertBound((1L << shift) + 1);
+        }
+
+        assertBound(Long.MAX_VALUE);
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long total = 0;
+
+        for (long v = 1; v <= 10000; v++) {
+            histogram.record(v);
+            total += v;
+        }
+
+        CallStats stats = new CallStats(10000, total, histogram.snapshot());
+
+        Assert.assertEquals(5000, stats.getMeanNanos());
+        assertNear(5000, stats.getP50Nanos());
+        assertNear(9900, stats.getP99Nanos());
+        assertNear(9990, stats.getP999Nanos());
+        assertNear(10000, stats.getMaxNanos());
+        assertNear(1000, stats.getPercentileNanos(10.0));
+        Assert.assertEquals(1, stats.getPercentileNanos(0.0));
+
+        Assert.assertEquals(0, new CallStats(0, 0,
+                new LatencyHistogram().snapshot()).getP99Nanos());
+    }
+
+    public void testJmxRoundTrip() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(v * 1000);
+        }
+
+        final CallStats stats = new CallStats(1000, 500500000L, histogram
+                .snapshot());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(
+                "com.g414.haildb.test:type=NativeStatsTest");
+        server.registerMBean(new StatsHolder(stats), name);
+
+        try {
+            CallStats rebuilt = JMX.newMXBeanProxy(server, name,
+                    StatsHolderMXBean.class).getStats();
+
+            Assert.assertEquals(stats.getCount(), rebuilt.getCount());
+            Assert.assertEquals(stats.getTotalNanos(), rebuilt
+                    .getTotalNanos());
+            Assert.assertEquals(stats.getP50Nanos(), rebuilt.getP50Nanos());
+            Assert.assertEquals(stats.getP99Nanos(), rebuilt.getP99Nanos());
+            Assert.assertEquals(stats.getP999Nanos(), rebuilt.getP999Nanos());
+            Assert.assertEquals(stats.getMaxNanos(), rebuilt.getMaxNanos());
+            Assert.assertTrue(rebuilt.getP99Nanos() > 0);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    public interface StatsHolderMXBean {
+        public CallStats getStats();
+    }
+
+    public static class StatsHolder implements StatsHolderMXBean {
+        private final CallStats stats;
+
+        public StatsHolder(CallStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public CallStats getStats() {
+            return stats;
+        }
+    }
+
+    private static void assertBound(long value) {
+        long upper = LatencyHistogram.upperBound(LatencyHistogram
+                .bucketOf(value));
+
+        Assert.assertTrue("bound " + upper + " below " + value, upper >= value);
+        Assert.assertTrue("bound " + upper + " too far above " + value,
+                upper - value <= value / LatencyHistogram.SUB_BUCKETS);
+    }
+
+    private static void assertNear(long expected, long actual) {
+        Assert.assertTrue("expected ~" + expected + ", got " + actual,
+                actual >= expected
+                        && actual - expected <= expected
+                                / LatencyHistogram.SUB_BUCKETS);
+    }
+}